@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import com.flurry.android.FlurryAgent;
+import com.flurry.android.FlurryConfig;
+import com.flurry.android.FlurryEvent;
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.Map;
+
+/**
+ * The Flurry SDK calls, forwarded to FlurryAgent and FlurryConfig.
+ */
+class FlurryFlutterAgentSdk implements FlurryFlutterSdk {
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId) {
+        return FlurryAgent.logEvent(eventId);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters) {
+        return FlurryAgent.logEvent(eventId, parameters);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, boolean timed) {
+        return FlurryAgent.logEvent(eventId, timed);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, boolean timed) {
+        return FlurryAgent.logEvent(eventId, parameters, timed);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, String timedId) {
+        return FlurryAgent.logEvent(eventId, timedId);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, String timedId) {
+        return FlurryAgent.logEvent(eventId, parameters, timedId);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(FlurryEvent event, FlurryEvent.Params params) {
+        return FlurryAgent.logEvent(event, params);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logPayment(String productName, String productId, int quantity, double price,
+                                              String currency, String transactionId, Map<String, String> parameters) {
+        return FlurryAgent.logPayment(productName, productId, quantity, price, currency, transactionId, parameters);
+    }
+
+    @Override
+    public void endTimedEvent(String eventId) {
+        FlurryAgent.endTimedEvent(eventId);
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters) {
+        FlurryAgent.endTimedEvent(eventId, parameters);
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, String timedId) {
+        FlurryAgent.endTimedEvent(eventId, timedId);
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+        FlurryAgent.endTimedEvent(eventId, parameters, timedId);
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass) {
+        FlurryAgent.onError(errorId, message, errorClass);
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        FlurryAgent.onError(errorId, message, errorClass, parameters);
+    }
+
+    @Override
+    public void logBreadcrumb(String crashBreadcrumb) {
+        FlurryAgent.logBreadcrumb(crashBreadcrumb);
+    }
+
+    @Override
+    public String getConfigString(String key, String defaultValue) {
+        return FlurryConfig.getInstance().getString(key, defaultValue);
+    }
+
+}
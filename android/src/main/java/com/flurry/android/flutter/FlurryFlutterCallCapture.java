@@ -0,0 +1,146 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captures the method calls that reach the plugin, with their timing, to a file.
+ *
+ * The file has a magic and a version int, then records of a length int, the nanoseconds
+ * since the capture started, the method and the arguments, in
+ * {@link FlurryFlutterEventLogCodec} encoding. Writes are buffered, the file is flushed
+ * when the app goes to the background and when the capture stops.
+ */
+class FlurryFlutterCallCapture implements FlurryFlutterLifecycle.Flushable {
+    static final int MAGIC = 0x46434150;
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * A captured method call.
+     */
+    static final class Call {
+        final long offsetNanos;
+        final String method;
+        final Object arguments;
+
+        Call(long offsetNanos, String method, Object arguments) {
+            this.offsetNanos = offsetNanos;
+            this.method = method;
+            this.arguments = arguments;
+        }
+    }
+
+    private final File file;
+    private final DataOutputStream out;
+    private final long startNanos;
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private boolean closed = false;
+
+    FlurryFlutterCallCapture(File file) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        this.startNanos = System.nanoTime();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    synchronized void record(String method, Object arguments) throws IOException {
+        if (closed) {
+            return;
+        }
+
+        ByteBuffer record = scratch;
+        record.clear();
+        record.putLong(System.nanoTime() - startNanos);
+        record = FlurryFlutterEventLogCodec.writeValue(record, method);
+        record = FlurryFlutterEventLogCodec.writeValue(record, arguments);
+        scratch = record;
+        out.writeInt(record.position());
+        out.write(record.array(), 0, record.position());
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            // Retried on the next flush, or reported on close.
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        out.close();
+    }
+
+    /**
+     * Returns the calls of a capture file, in the order they were captured.
+     */
+    static List<Call> read(File file) throws IOException {
+        List<Call> calls = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a call capture file: " + file);
+            }
+
+            while (true) {
+                byte[] bytes;
+                try {
+                    bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                } catch (EOFException e) {
+                    // The end of the capture, or a record torn when the process died.
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.wrap(bytes);
+                long offsetNanos = record.getLong();
+                Object method = FlurryFlutterEventLogCodec.readValue(record);
+                Object arguments = FlurryFlutterEventLogCodec.readValue(record);
+                calls.add(new Call(offsetNanos, String.valueOf(method), arguments));
+            }
+        } finally {
+            in.close();
+        }
+        return calls;
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.flurry.android.flutter;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the parsed Flurry Config values, for the typed config getters.
+ *
+ * A config value is read from the SDK once, and parsed once per type it is read as, until the
+ * next config activation invalidates the cache. JSON values are parsed into the maps and lists
+ * of the method channel codec. Every value has a 64-bit FNV-1a hash, that lets Dart skip the
+ * transfer of a value it already has.
+ */
+class FlurryFlutterConfigCache implements FlurryFlutterMemoryTrimmer.Trimmable {
+    private static final String TAG = "FlurryFlutterConfig";
+
+    static final int TYPE_LONG = 0;
+    static final int TYPE_DOUBLE = 1;
+    static final int TYPE_BOOLEAN = 2;
+    static final int TYPE_JSON = 3;
+    private static final int TYPE_COUNT = 4;
+
+    static final int MAX_ENTRIES = 256;
+
+    /**
+     * Reads the raw config values.
+     */
+    interface Source {
+        /**
+         * Returns the config value of the key, or null if the config has none.
+         */
+        String getString(String key);
+    }
+
+    private static final class Entry {
+        final String raw;
+        final long hash;
+        final Object[] values = new Object[TYPE_COUNT];
+        final boolean[] parsed = new boolean[TYPE_COUNT];
+
+        Entry(String raw) {
+            this.raw = raw;
+            this.hash = hash(raw);
+        }
+    }
+
+    private final Source source;
+    // In access order, for the least recently used entries to go first.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private long generation = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long parseErrors = 0;
+
+    FlurryFlutterConfigCache(Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the value parsed as the type, or null if the config has no valid value.
+     */
+    Object get(String key, int type) {
+        Entry entry = entry(key);
+        if (entry.raw == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (!entry.parsed[type]) {
+                entry.values[type] = parse(entry.raw, type);
+                entry.parsed[type] = true;
+                if (entry.values[type] == null) {
+                    parseErrors++;
+                }
+            }
+            return entry.values[type];
+        }
+    }
+
+    /**
+     * Returns the hash of the value, or null if the config has no value.
+     */
+    Long getHash(String key) {
+        Entry entry = entry(key);
+        return (entry.raw != null) ? entry.hash : null;
+    }
+
+    /**
+     * Forgets the values, on config activation.
+     */
+    synchronized void invalidate() {
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Returns {"entries", "hits", "misses", "parseErrors", "generation"}.
+     */
+    synchronized Map<String, Object> getCounts() {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("entries", entries.size());
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("parseErrors", parseErrors);
+        counts.put("generation", generation);
+        return counts;
+    }
+
+    @Override
+    public synchronized int trim(int level) {
+        int count = (level >= FlurryFlutterMemoryTrimmer.LEVEL_RELEASE) ? entries.size() : entries.size() / 2;
+        Iterator<String> keys = entries.keySet().iterator();
+        for (int i = 0; i < count; i++) {
+            keys.next();
+            keys.remove();
+        }
+        return count;
+    }
+
+    private Entry entry(String key) {
+        long readGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+            misses++;
+            readGeneration = generation;
+        }
+
+        // Read outside the lock, the SDK call can be slow.
+        Entry entry = new Entry(source.getString(key));
+        synchronized (this) {
+            // An activation during the read may have changed the value, don't cache it.
+            if (readGeneration == generation) {
+                Entry existing = entries.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                entries.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    static Object parse(String raw, int type) {
+        String value = raw.trim();
+        try {
+            switch (type) {
+                case TYPE_LONG:
+                    return Long.parseLong(value);
+                case TYPE_DOUBLE:
+                    return Double.parseDouble(value);
+                case TYPE_BOOLEAN:
+                    if ("true".equalsIgnoreCase(value)) {
+                        return Boolean.TRUE;
+                    }
+                    return "false".equalsIgnoreCase(value) ? Boolean.FALSE : null;
+                case TYPE_JSON:
+                    return fromJson(new JSONTokener(value).nextValue());
+                default:
+                    throw new IllegalArgumentException("Unknown config type: " + type);
+            }
+        } catch (NumberFormatException | JSONException e) {
+            Log.w(TAG, "Invalid config value for type " + type + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Object fromJson(Object json) throws JSONException {
+        if (json instanceof JSONObject) {
+            JSONObject object = (JSONObject) json;
+            Map<String, Object> map = new HashMap<>();
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                map.put(key, fromJson(object.get(key)));
+            }
+            return Collections.unmodifiableMap(map);
+        } else if (json instanceof JSONArray) {
+            JSONArray array = (JSONArray) json;
+            List<Object> list = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                list.add(fromJson(array.get(i)));
+            }
+            return Collections.unmodifiableList(list);
+        } else if (json == JSONObject.NULL) {
+            return null;
+        }
+        return json;
+    }
+
+    private static long hash(String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+}
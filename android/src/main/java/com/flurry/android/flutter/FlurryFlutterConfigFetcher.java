@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.os.SystemClock;
+
+import com.flurry.android.FlurryConfig;
+
+import java.util.Random;
+
+/**
+ * Coordinates the FlurryConfig fetches requested from Dart.
+ *
+ * <ul>
+ *     <li>A fetch requested while another one is in flight is coalesced into it.</li>
+ *     <li>Fetches are at least the minimum interval apart.</li>
+ *     <li>After a fetch error the SDK doesn't retry, the fetch is retried with an exponential
+ *     backoff with jitter, and requested fetches wait for the backoff. When the SDK reports it
+ *     is retrying, the fetch stays in flight and is not retried.</li>
+ *     <li>After the maximum number of retries, retries stop until a fetch is requested again,
+ *     which starts over without backoff.</li>
+ * </ul>
+ * Every decision is reported to the listener.
+ */
+class FlurryFlutterConfigFetcher {
+    static final String DECISION_FETCH = "fetch";
+    static final String DECISION_COALESCED = "coalesced";
+    static final String DECISION_THROTTLED = "throttled";
+    static final String DECISION_BACKOFF = "backoff";
+    static final String DECISION_SDK_RETRYING = "sdkRetrying";
+    static final String DECISION_RETRY_SCHEDULED = "retryScheduled";
+    static final String DECISION_GAVE_UP = "gaveUp";
+
+    static final long DEFAULT_MIN_INTERVAL_MILLIS = 0;
+    static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 1000;
+    static final long DEFAULT_MAX_BACKOFF_MILLIS = 5 * 60 * 1000;
+    static final int DEFAULT_MAX_RETRIES = 5;
+
+    // A fetch without a result, e.g. throttled by the SDK, is no longer considered in flight.
+    static final long FETCH_TIMEOUT_MILLIS = 60000;
+
+    /**
+     * Receiver of the fetch decisions.
+     */
+    interface Listener {
+        /**
+         * @param delayMillis the time until the next fetch is allowed, or scheduled.
+         */
+        void onDecision(String decision, long delayMillis);
+    }
+
+    private final Listener listener;
+    private final Random random = new Random();
+    private final Runnable retryTask = new Runnable() {
+        @Override
+        public void run() {
+            retry();
+        }
+    };
+
+    private long minIntervalMillis = DEFAULT_MIN_INTERVAL_MILLIS;
+    private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+    private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+
+    private boolean inFlight = false;
+    private long fetchStart = 0;
+    private long nextAllowed = 0;
+    private int failures = 0;
+    private boolean retryScheduled = false;
+    private boolean gaveUp = false;
+
+    FlurryFlutterConfigFetcher(Listener listener) {
+        this.listener = listener;
+    }
+
+    synchronized void configure(long minIntervalMillis, long initialBackoffMillis, long maxBackoffMillis, int maxRetries) {
+        this.minIntervalMillis = Math.max(0, minIntervalMillis);
+        this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    /**
+     * Fetches the config, unless the fetch is coalesced, throttled or backing off.
+     */
+    void fetch() {
+        String decision;
+        long delay = 0;
+        synchronized (this) {
+            long now = SystemClock.elapsedRealtime();
+            if (gaveUp) {
+                // Retries stopped, a requested fetch starts over.
+                gaveUp = false;
+                failures = 0;
+                nextAllowed = 0;
+            }
+            if (inFlight && now - fetchStart < FETCH_TIMEOUT_MILLIS) {
+                decision = DECISION_COALESCED;
+            } else if (now < nextAllowed) {
+                decision = (failures > 0) ? DECISION_BACKOFF : DECISION_THROTTLED;
+                delay = nextAllowed - now;
+            } else {
+                decision = DECISION_FETCH;
+                start(now);
+            }
+        }
+
+        listener.onDecision(decision, delay);
+        if (DECISION_FETCH.equals(decision)) {
+            boolean traced = FlurryFlutterTracer.beginSdkSection("fetchConfig");
+            try {
+                FlurryConfig.getInstance().fetchConfig();
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
+            }
+        }
+    }
+
+    /**
+     * Completes the in-flight fetch, with or without a change.
+     */
+    synchronized void onFetchComplete() {
+        inFlight = false;
+        failures = 0;
+        gaveUp = false;
+        nextAllowed = SystemClock.elapsedRealtime() + minIntervalMillis;
+        cancelRetry();
+    }
+
+    void onFetchError(boolean isRetrying) {
+        String decision;
+        long delay = 0;
+        synchronized (this) {
+            if (isRetrying) {
+                // The SDK keeps the fetch going, don't add ours on top of it.
+                decision = DECISION_SDK_RETRYING;
+                fetchStart = SystemClock.elapsedRealtime();
+            } else {
+                inFlight = false;
+                failures++;
+                delay = backoff(failures);
+                nextAllowed = SystemClock.elapsedRealtime() + delay;
+                if (failures <= maxRetries) {
+                    decision = DECISION_RETRY_SCHEDULED;
+                    cancelRetry();
+                    retryScheduled = true;
+                    FlurryFlutterEventStream.getMainHandler().postDelayed(retryTask, delay);
+                } else {
+                    decision = DECISION_GAVE_UP;
+                    gaveUp = true;
+                }
+            }
+        }
+
+        listener.onDecision(decision, delay);
+    }
+
+    private void retry() {
+        synchronized (this) {
+            if (!retryScheduled) {
+                return;
+            }
+            retryScheduled = false;
+            nextAllowed = 0;
+        }
+        fetch();
+    }
+
+    private void start(long now) {
+        inFlight = true;
+        fetchStart = now;
+        cancelRetry();
+    }
+
+    private void cancelRetry() {
+        if (retryScheduled) {
+            retryScheduled = false;
+            FlurryFlutterEventStream.getMainHandler().removeCallbacks(retryTask);
+        }
+    }
+
+    /**
+     * Returns the exponential backoff after the failures, with a jitter between half and all of it.
+     */
+    private long backoff(int failures) {
+        long backoff = initialBackoffMillis;
+        for (int i = 1; i < failures && backoff < maxBackoffMillis; i++) {
+            backoff *= 2;
+        }
+        backoff = Math.min(backoff, maxBackoffMillis);
+        long half = backoff / 2;
+        return half + (long) (random.nextDouble() * (backoff - half));
+    }
+
+}
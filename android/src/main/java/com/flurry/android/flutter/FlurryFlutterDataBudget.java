@@ -0,0 +1,448 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import com.flurry.android.FlurryEvent;
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimated bytes of analytics per event, with daily budgets per class of events.
+ *
+ * Sits right in front of the Flurry SDK, and estimates the serialized size of every event it
+ * receives: a fixed overhead, the event id, and the UTF-8 parameter keys and values. The
+ * estimates of the events the SDK records add up to running totals per event id and per local
+ * day.
+ *
+ * Low-priority events can be grouped into classes by event id, or id prefix ending with '*',
+ * each with a daily byte budget. Once a class is over its budget for the day, its events are
+ * dropped, or sampled at the class rate, and the notifier is called once. Events outside of
+ * any class, payments and errors are never dropped. A dropped event returns a null status,
+ * see {@link FlurryFlutterSdk}. The budgets and totals start over with the process.
+ */
+class FlurryFlutterDataBudget implements FlurryFlutterSdk {
+    static final int EVENT_OVERHEAD_BYTES = 24;
+    static final int PARAMETER_OVERHEAD_BYTES = 4;
+    static final int PAYMENT_OVERHEAD_BYTES = 16;
+
+    static final int MAX_EVENT_IDS = 1024;
+    static final String OTHER_EVENTS = "Flurry.OtherEvents";
+    static final int DAYS = 7;
+    static final String PAYMENT_EVENT_ID = "Flurry.Payment";
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000;
+
+    /**
+     * Receiver of the budget overruns, called once per class and day.
+     */
+    interface Notifier {
+        void onBudgetExceeded(String eventClass, long usedBytes, long dailyBytes);
+    }
+
+    static final class EventClass {
+        final String name;
+        final String[] eventIds;
+        final long dailyBytes;
+        final double overBudgetSampleRate;
+
+        long day = -1;
+        long usedBytes;
+        long droppedCount;
+        long sampledCount;
+        boolean notified;
+
+        EventClass(String name, List<String> eventIds, long dailyBytes, double overBudgetSampleRate) {
+            this.name = name;
+            this.eventIds = eventIds.toArray(new String[0]);
+            this.dailyBytes = dailyBytes;
+            this.overBudgetSampleRate = Math.max(0, Math.min(1, overBudgetSampleRate));
+        }
+
+        boolean matches(String eventId) {
+            for (String id : eventIds) {
+                if (id.endsWith("*") ? eventId.startsWith(id.substring(0, id.length() - 1)) : id.equals(eventId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void startDay(long day) {
+            if (this.day != day) {
+                this.day = day;
+                usedBytes = 0;
+                droppedCount = 0;
+                sampledCount = 0;
+                notified = false;
+            }
+        }
+    }
+
+    // The class of the first event ids seen, NO_CLASS if none, up to MAX_EVENT_IDS; cleared when
+    // the classes change.
+    private static final EventClass NO_CLASS = new EventClass("", new ArrayList<String>(), 0, 1);
+
+    private final FlurryFlutterSdk sdk;
+    private final Notifier notifier;
+    private final Random random = new Random();
+
+    private final Map<String, EventClass> classes = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, EventClass> classOf = new ConcurrentHashMap<>();
+    private final Map<String, long[]> eventBytes = new HashMap<>();
+    private final long[] days = new long[DAYS];
+    private final long[] dayBytes = new long[DAYS];
+    private long today = -1;
+    private long nextDayMillis = 0;
+
+    FlurryFlutterDataBudget(FlurryFlutterSdk sdk, Notifier notifier) {
+        this.sdk = sdk;
+        this.notifier = notifier;
+    }
+
+    /**
+     * Sets the daily budget of a class of events, or removes the class if dailyBytes is 0.
+     */
+    synchronized void setBudget(String name, List<String> eventIds, long dailyBytes, double overBudgetSampleRate) {
+        EventClass previous = classes.remove(name);
+        if (dailyBytes > 0 && eventIds != null && !eventIds.isEmpty()) {
+            EventClass eventClass = new EventClass(name, eventIds, dailyBytes, overBudgetSampleRate);
+            if (previous != null) {
+                // Keep today's usage of the class.
+                eventClass.day = previous.day;
+                eventClass.usedBytes = previous.usedBytes;
+                eventClass.droppedCount = previous.droppedCount;
+                eventClass.sampledCount = previous.sampledCount;
+                eventClass.notified = previous.notified && previous.usedBytes >= dailyBytes;
+            }
+            classes.put(name, eventClass);
+        }
+        classOf.clear();
+    }
+
+    /**
+     * Returns the totals as {"events": {eventId: bytes}, "days": {"yyyy-MM-dd": bytes},
+     * "classes": {name: {"usedBytes", "dailyBytes", "dropped", "sampled"}}}, for today.
+     */
+    synchronized Map<String, Object> getUsage() {
+        Map<String, Long> events = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : eventBytes.entrySet()) {
+            events.put(entry.getKey(), entry.getValue()[0]);
+        }
+
+        Map<String, Long> dayTotals = new HashMap<>();
+        for (int i = 0; i < DAYS; i++) {
+            if (dayBytes[i] > 0) {
+                dayTotals.put(formatDay(days[i]), dayBytes[i]);
+            }
+        }
+
+        long day = today();
+        Map<String, Object> classUsage = new HashMap<>();
+        for (EventClass eventClass : classes.values()) {
+            eventClass.startDay(day);
+            Map<String, Object> item = new HashMap<>();
+            item.put("usedBytes", eventClass.usedBytes);
+            item.put("dailyBytes", eventClass.dailyBytes);
+            item.put("dropped", eventClass.droppedCount);
+            item.put("sampled", eventClass.sampledCount);
+            classUsage.put(eventClass.name, item);
+        }
+
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("events", events);
+        usage.put("days", dayTotals);
+        usage.put("classes", classUsage);
+        return usage;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId) {
+        int bytes = estimate(eventId, null);
+        return admit(eventId, bytes) ? accounted(eventId, bytes, sdk.logEvent(eventId)) : null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters) {
+        int bytes = estimate(eventId, parameters);
+        return admit(eventId, bytes) ? accounted(eventId, bytes, sdk.logEvent(eventId, parameters)) : null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, boolean timed) {
+        int bytes = estimate(eventId, null);
+        return admit(eventId, bytes) ? accounted(eventId, bytes, sdk.logEvent(eventId, timed)) : null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, boolean timed) {
+        int bytes = estimate(eventId, parameters);
+        return admit(eventId, bytes) ? accounted(eventId, bytes, sdk.logEvent(eventId, parameters, timed)) : null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, String timedId) {
+        int bytes = estimate(eventId, null);
+        return admit(eventId, bytes) ? accounted(eventId, bytes, sdk.logEvent(eventId, timedId)) : null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, String timedId) {
+        int bytes = estimate(eventId, parameters);
+        return admit(eventId, bytes) ? accounted(eventId, bytes, sdk.logEvent(eventId, parameters, timedId)) : null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(FlurryEvent event, FlurryEvent.Params params) {
+        String eventId = event.toString();
+        int bytes = EVENT_OVERHEAD_BYTES + utf8Length(eventId);
+        if (params != null) {
+            for (Map.Entry<Object, String> entry : params.getParams().entrySet()) {
+                bytes += PARAMETER_OVERHEAD_BYTES + utf8Length(entry.getKey().toString()) + utf8Length(entry.getValue());
+            }
+        }
+        return admit(eventId, bytes) ? accounted(eventId, bytes, sdk.logEvent(event, params)) : null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logPayment(String productName, String productId, int quantity, double price,
+                                              String currency, String transactionId, Map<String, String> parameters) {
+        int bytes = estimate(PAYMENT_EVENT_ID, parameters) + PAYMENT_OVERHEAD_BYTES + utf8Length(productName)
+                + utf8Length(productId) + utf8Length(currency) + utf8Length(transactionId);
+        return accounted(PAYMENT_EVENT_ID, bytes,
+                sdk.logPayment(productName, productId, quantity, price, currency, transactionId, parameters));
+    }
+
+    @Override
+    public void endTimedEvent(String eventId) {
+        sdk.endTimedEvent(eventId);
+        account(eventId, estimate(eventId, null));
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters) {
+        sdk.endTimedEvent(eventId, parameters);
+        account(eventId, estimate(eventId, parameters));
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, String timedId) {
+        sdk.endTimedEvent(eventId, timedId);
+        account(eventId, estimate(eventId, null));
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+        sdk.endTimedEvent(eventId, parameters, timedId);
+        account(eventId, estimate(eventId, parameters));
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass) {
+        sdk.onError(errorId, message, errorClass);
+        account(errorId, estimate(errorId, null) + utf8Length(message) + utf8Length(errorClass));
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        sdk.onError(errorId, message, errorClass, parameters);
+        account(errorId, estimate(errorId, parameters) + utf8Length(message) + utf8Length(errorClass));
+    }
+
+    @Override
+    public void logBreadcrumb(String crashBreadcrumb) {
+        sdk.logBreadcrumb(crashBreadcrumb);
+    }
+
+    @Override
+    public String getConfigString(String key, String defaultValue) {
+        return sdk.getConfigString(key, defaultValue);
+    }
+
+    /**
+     * Checks the event against the budget of its class, and returns false if it is dropped.
+     * The event is accounted only once the SDK accepts it.
+     */
+    private boolean admit(String eventId, int bytes) {
+        if (eventId == null) {
+            return true;
+        }
+
+        EventClass exceeded = null;
+        boolean admitted = true;
+        synchronized (this) {
+            EventClass eventClass = classOf(eventId);
+            if (eventClass != null) {
+                eventClass.startDay(today());
+                if (eventClass.usedBytes + bytes > eventClass.dailyBytes) {
+                    if (!eventClass.notified) {
+                        eventClass.notified = true;
+                        exceeded = eventClass;
+                    }
+                    if (eventClass.overBudgetSampleRate == 0 || random.nextDouble() >= eventClass.overBudgetSampleRate) {
+                        eventClass.droppedCount++;
+                        admitted = false;
+                    } else {
+                        eventClass.sampledCount++;
+                    }
+                }
+            }
+        }
+
+        notify(exceeded);
+        return admitted;
+    }
+
+    /**
+     * Accounts the event if the SDK recorded it, and returns its status.
+     */
+    private FlurryEventRecordStatus accounted(String eventId, int bytes, FlurryEventRecordStatus status) {
+        if (status == FlurryEventRecordStatus.kFlurryEventRecorded) {
+            account(eventId, bytes);
+        }
+        return status;
+    }
+
+    /**
+     * Adds the bytes of an event the SDK accepted to the totals, and to its class.
+     */
+    private synchronized void account(String eventId, int bytes) {
+        if (eventId == null) {
+            return;
+        }
+
+        long day = today();
+        EventClass eventClass = classOf(eventId);
+        if (eventClass != null) {
+            eventClass.startDay(day);
+            eventClass.usedBytes += bytes;
+        }
+
+        long[] total = eventBytes.get(eventId);
+        if (total == null) {
+            if (eventBytes.size() >= MAX_EVENT_IDS) {
+                eventId = OTHER_EVENTS;
+                total = eventBytes.get(eventId);
+            }
+            if (total == null) {
+                total = new long[1];
+                eventBytes.put(eventId, total);
+            }
+        }
+        total[0] += bytes;
+
+        int slot = (int) (day % DAYS);
+        if (days[slot] != day) {
+            days[slot] = day;
+            dayBytes[slot] = 0;
+        }
+        dayBytes[slot] += bytes;
+    }
+
+    private void notify(EventClass exceeded) {
+        if (exceeded != null) {
+            notifier.onBudgetExceeded(exceeded.name, exceeded.usedBytes, exceeded.dailyBytes);
+        }
+    }
+
+    private EventClass classOf(String eventId) {
+        if (classes.isEmpty()) {
+            return null;
+        }
+
+        EventClass eventClass = classOf.get(eventId);
+        if (eventClass == null) {
+            eventClass = NO_CLASS;
+            for (EventClass candidate : classes.values()) {
+                if (candidate.matches(eventId)) {
+                    eventClass = candidate;
+                    break;
+                }
+            }
+            // Past the bound, the ids are matched on each call rather than cached.
+            if (classOf.size() < MAX_EVENT_IDS) {
+                classOf.put(eventId, eventClass);
+            }
+        }
+        return (eventClass != NO_CLASS) ? eventClass : null;
+    }
+
+    /**
+     * Returns the estimated serialized size of an event.
+     */
+    static int estimate(String eventId, Map<String, String> parameters) {
+        int bytes = EVENT_OVERHEAD_BYTES + utf8Length(eventId);
+        if (parameters != null) {
+            for (Map.Entry<String, String> entry : parameters.entrySet()) {
+                bytes += PARAMETER_OVERHEAD_BYTES + utf8Length(entry.getKey()) + utf8Length(entry.getValue());
+            }
+        }
+        return bytes;
+    }
+
+    static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the local day number since the epoch, the time zone is checked once a day.
+     */
+    private long today() {
+        long now = System.currentTimeMillis();
+        if (now >= nextDayMillis || now < nextDayMillis - DAY_MILLIS) {
+            long offset = TimeZone.getDefault().getOffset(now);
+            today = (now + offset) / DAY_MILLIS;
+            nextDayMillis = (today + 1) * DAY_MILLIS - offset;
+        }
+        return today;
+    }
+
+    private static String formatDay(long day) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.US);
+        calendar.setTimeInMillis(day * DAY_MILLIS);
+        return String.format(Locale.US, "%04d-%02d-%02d", calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Session-scoped default parameters merged into every logged event.
+ *
+ * The defaults are kept as an immutable base map that is swapped as a whole on update, so
+ * the logging path reads it without locking. The updates come in order on the method channel,
+ * the last one wins.
+ */
+class FlurryFlutterDefaultParameters {
+    private volatile Map<String, String> base = Collections.emptyMap();
+
+    /**
+     * Replaces the default parameters.
+     */
+    void update(Map<String, String> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            base = Collections.emptyMap();
+        } else {
+            base = Collections.unmodifiableMap(new HashMap<>(parameters));
+        }
+    }
+
+    boolean isEmpty() {
+        return base.isEmpty();
+    }
+
+    /**
+     * Returns the defaults merged with the event parameters, the event parameters take precedence.
+     */
+    Map<String, String> merge(Map<String, String> parameters) {
+        Map<String, String> defaults = base;
+        if (defaults.isEmpty()) {
+            return parameters;
+        }
+        if (parameters == null || parameters.isEmpty()) {
+            return defaults;
+        }
+
+        Map<String, String> merged = new HashMap<>(defaults.size() + parameters.size());
+        merged.putAll(defaults);
+        merged.putAll(parameters);
+        return merged;
+    }
+
+    /**
+     * Adds the defaults to a standard event parameter map, before its own parameters are added.
+     */
+    void putInto(Map<Object, String> paramMap) {
+        Map<String, String> defaults = base;
+        if (!defaults.isEmpty()) {
+            paramMap.putAll(defaults);
+        }
+    }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Natively measured durations of the timed events, summarized in fixed-memory histograms.
+ *
+ * For the measured event ids, the start and end of a timed event are timed with the monotonic
+ * clock instead of being sent to Flurry. The durations go into a per-event histogram of log
+ * buckets (4 per power of two milliseconds, so percentiles are within 25%), and each histogram
+ * is reported as one summary event with its count, mean, p50, p90, p99 and max, when the app
+ * goes to the background or on the report interval.
+ */
+class FlurryFlutterDurationHistograms implements FlurryFlutterLifecycle.Pausable, FlurryFlutterMemoryTrimmer.Trimmable {
+    static final String SUMMARY_SUFFIX = ".DurationSummary";
+    static final String PARAM_COUNT = "Flurry.Count";
+    static final String PARAM_MEAN = "Flurry.MeanMillis";
+    static final String PARAM_P50 = "Flurry.P50Millis";
+    static final String PARAM_P90 = "Flurry.P90Millis";
+    static final String PARAM_P99 = "Flurry.P99Millis";
+    static final String PARAM_MAX = "Flurry.MaxMillis";
+
+    static final int MAX_OPEN_TIMERS = 256;
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 30;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final char SEPARATOR = '\u001f';
+
+    /**
+     * Receiver of the duration summaries.
+     */
+    interface Reporter {
+        void report(String eventId, Map<String, String> parameters);
+    }
+
+    static final class Histogram {
+        private final int[] counts = new int[BUCKETS];
+        private int count;
+        private long sumMillis;
+        private long maxMillis;
+
+        void record(long millis) {
+            counts[bucketOf(millis)]++;
+            count++;
+            sumMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        long getMaxMillis() {
+            return maxMillis;
+        }
+
+        long getMeanMillis() {
+            return (count == 0) ? 0 : sumMillis / count;
+        }
+
+        /**
+         * Returns the upper bound of the bucket holding the percentile, capped at the max.
+         */
+        long percentile(int percent) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = ((long) count * percent + 99) / 100;
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(bucket), maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = 0;
+            }
+            count = 0;
+            sumMillis = 0;
+            maxMillis = 0;
+        }
+    }
+
+    private final Reporter reporter;
+    private final Set<String> measured = new HashSet<>();
+    private final Map<String, Histogram> histograms = new HashMap<>();
+    private final Map<String, Long> openTimers = new HashMap<>();
+
+    private long droppedTimers = 0;
+
+    FlurryFlutterDurationHistograms(Reporter reporter) {
+        this.reporter = reporter;
+    }
+
+    /**
+     * Measures the timed event natively, or stops measuring it and reports what was measured.
+     */
+    synchronized void setMeasured(String eventId, boolean enabled) {
+        if (enabled) {
+            measured.add(eventId);
+            return;
+        }
+
+        measured.remove(eventId);
+        Histogram histogram = histograms.remove(eventId);
+        if (histogram != null) {
+            report(eventId, histogram);
+        }
+        Iterator<String> iterator = openTimers.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(eventId + SEPARATOR)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized boolean isMeasured(String eventId) {
+        return measured.contains(eventId);
+    }
+
+    /**
+     * Starts the timer of a measured event. Returns false if the event is not measured.
+     */
+    synchronized boolean start(String eventId, String timedId) {
+        if (!measured.contains(eventId)) {
+            return false;
+        }
+
+        if (openTimers.size() >= MAX_OPEN_TIMERS) {
+            // Timers are never ended if the app forgets to, don't let them pile up.
+            droppedTimers += openTimers.size();
+            openTimers.clear();
+        }
+        openTimers.put(key(eventId, timedId), SystemClock.elapsedRealtime());
+        return true;
+    }
+
+    /**
+     * Ends the timer of a measured event, and records its duration.
+     * Returns false if there is no timer started for the event.
+     */
+    synchronized boolean end(String eventId, String timedId) {
+        if (!measured.contains(eventId)) {
+            return false;
+        }
+
+        Long start = openTimers.remove(key(eventId, timedId));
+        if (start == null) {
+            return false;
+        }
+
+        Histogram histogram = histograms.get(eventId);
+        if (histogram == null) {
+            histogram = new Histogram();
+            histograms.put(eventId, histogram);
+        }
+        histogram.record(SystemClock.elapsedRealtime() - start);
+        return true;
+    }
+
+    synchronized long getDroppedTimerCount() {
+        return droppedTimers;
+    }
+
+    /**
+     * Reports the summaries of all the durations recorded since the last report.
+     */
+    synchronized void flush() {
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            report(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Reports the summaries at the end of the session, when the app goes to the background.
+     */
+    @Override
+    public void pause() {
+        flush();
+    }
+
+    /**
+     * Drops the histograms left empty by the last report, and the open timers on release.
+     * The recorded durations are kept for the next report, a trim doesn't split the summaries.
+     */
+    @Override
+    public synchronized int trim(int level) {
+        int released = 0;
+        Iterator<Histogram> iterator = histograms.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getCount() == 0) {
+                iterator.remove();
+                released++;
+            }
+        }
+        if (level >= FlurryFlutterMemoryTrimmer.LEVEL_RELEASE) {
+            released += openTimers.size();
+            droppedTimers += openTimers.size();
+            openTimers.clear();
+        }
+        return released;
+    }
+
+    private void report(String eventId, Histogram histogram) {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(PARAM_COUNT, Integer.toString(histogram.getCount()));
+        parameters.put(PARAM_MEAN, Long.toString(histogram.getMeanMillis()));
+        parameters.put(PARAM_P50, Long.toString(histogram.percentile(50)));
+        parameters.put(PARAM_P90, Long.toString(histogram.percentile(90)));
+        parameters.put(PARAM_P99, Long.toString(histogram.percentile(99)));
+        parameters.put(PARAM_MAX, Long.toString(histogram.getMaxMillis()));
+        histogram.reset();
+        reporter.report(eventId + SUMMARY_SUFFIX, parameters);
+    }
+
+    private static String key(String eventId, String timedId) {
+        return (timedId == null) ? eventId + SEPARATOR : eventId + SEPARATOR + timedId;
+    }
+
+    static int bucketOf(long millis) {
+        if (millis < SUB_BUCKETS) {
+            return (int) Math.max(0, millis);
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(millis);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (millis >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * width + width - 1;
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Native time-on-screen accounting per route, summarized in one event per route.
+ *
+ * Dart reports the route enters and exits. Each route accumulates its foreground time on the
+ * monotonic clock, and the number of visits; the time stops while the app is in the
+ * background. A route is reported as one engagement event when its time reaches the threshold
+ * on exit, and all the routes are reported when the app goes to the background, the end of
+ * the session. A memory trim does not end the session, the routes keep counting through it.
+ * The number of routes is bounded, the routes past it are accounted together.
+ */
+class FlurryFlutterEngagement implements FlurryFlutterLifecycle.Pausable, FlurryFlutterLifecycle.Resumable {
+    static final String EVENT_ID = "Flurry.RouteEngagement";
+    static final String PARAM_ROUTE = "Flurry.Route";
+    static final String PARAM_VISITS = "Flurry.Visits";
+    static final String PARAM_ENGAGED = "Flurry.EngagedMillis";
+
+    static final String OTHER_ROUTES = "Flurry.OtherRoutes";
+    static final int MAX_ROUTES = 128;
+    static final long DEFAULT_THRESHOLD_MILLIS = 30 * 60 * 1000;
+
+    /**
+     * Receiver of the engagement summaries.
+     */
+    interface Reporter {
+        void report(String eventId, Map<String, String> parameters);
+    }
+
+    /**
+     * Source of the monotonic time, the system uptime outside of the tests.
+     */
+    interface Clock {
+        long elapsedRealtime();
+    }
+
+    static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long elapsedRealtime() {
+            return SystemClock.elapsedRealtime();
+        }
+    };
+
+    private static final class Route {
+        long engagedMillis;
+        int visits;
+        // Nested enters of the same route, e.g. from several navigators.
+        int active;
+        // Start of the current foreground span while active, or -1.
+        long since = -1;
+    }
+
+    private final FlurryFlutterLifecycle lifecycle;
+    private final Reporter reporter;
+    private final Clock clock;
+    private final Map<String, Route> routes = new HashMap<>();
+
+    private long thresholdMillis = DEFAULT_THRESHOLD_MILLIS;
+
+    FlurryFlutterEngagement(FlurryFlutterLifecycle lifecycle, Reporter reporter) {
+        this(lifecycle, reporter, SYSTEM_CLOCK);
+    }
+
+    FlurryFlutterEngagement(FlurryFlutterLifecycle lifecycle, Reporter reporter, Clock clock) {
+        this.lifecycle = lifecycle;
+        this.reporter = reporter;
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the engaged time that triggers the summary of a route on exit, 0 to only report
+     * at the end of the session.
+     */
+    synchronized void setThreshold(long thresholdMillis) {
+        this.thresholdMillis = Math.max(0, thresholdMillis);
+    }
+
+    synchronized void enter(String key) {
+        if (key == null) {
+            return;
+        }
+
+        Route route = routes.get(key);
+        if (route == null) {
+            if (routes.size() >= MAX_ROUTES) {
+                key = OTHER_ROUTES;
+                route = routes.get(key);
+            }
+            if (route == null) {
+                route = new Route();
+                routes.put(key, route);
+            }
+        }
+
+        route.visits++;
+        if (route.active++ == 0 && lifecycle.isForeground()) {
+            route.since = clock.elapsedRealtime();
+        }
+    }
+
+    synchronized void exit(String key) {
+        Route route = (key != null) ? routes.get(key) : null;
+        if (route == null && key != null && routes.size() >= MAX_ROUTES) {
+            key = OTHER_ROUTES;
+            route = routes.get(key);
+        }
+        if (route == null || route.active == 0) {
+            return;
+        }
+
+        if (--route.active == 0) {
+            stop(route, clock.elapsedRealtime());
+            if (thresholdMillis > 0 && route.engagedMillis >= thresholdMillis) {
+                report(key, route);
+                routes.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Reports all the routes, at the end of the session when the app goes to the background.
+     * The active routes are paused until the app returns.
+     */
+    @Override
+    public synchronized void pause() {
+        long now = clock.elapsedRealtime();
+        Iterator<Map.Entry<String, Route>> iterator = routes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Route> entry = iterator.next();
+            Route route = entry.getValue();
+            stop(route, now);
+            if (route.visits > 0 || route.engagedMillis > 0) {
+                report(entry.getKey(), route);
+            }
+            if (route.active == 0) {
+                iterator.remove();
+            } else {
+                route.visits = 0;
+                route.engagedMillis = 0;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void resume() {
+        long now = clock.elapsedRealtime();
+        for (Route route : routes.values()) {
+            if (route.active > 0 && route.since < 0) {
+                route.since = now;
+            }
+        }
+    }
+
+    private static void stop(Route route, long now) {
+        if (route.since >= 0) {
+            route.engagedMillis += now - route.since;
+            route.since = -1;
+        }
+    }
+
+    private void report(String key, Route route) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(PARAM_ROUTE, key);
+        parameters.put(PARAM_VISITS, Integer.toString(route.visits));
+        parameters.put(PARAM_ENGAGED, Long.toString(route.engagedMillis));
+        reporter.report(EVENT_ID, parameters);
+    }
+
+}
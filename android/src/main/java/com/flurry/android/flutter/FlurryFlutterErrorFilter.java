@@ -0,0 +1,310 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Error deduplication in front of FlurryAgent.onError.
+ *
+ * Errors are fingerprinted by id, class and normalized message. The first occurrence of a
+ * fingerprint is reported right away, repeats within the window are only counted, and the
+ * count is reported as one error when the window closes. Fingerprints are kept in a bounded
+ * LRU; evicting a fingerprint closes its window. The errors are reported after the filter
+ * lock is released, the reporter may log errors again.
+ */
+class FlurryFlutterErrorFilter implements FlurryFlutterLifecycle.Pausable, FlurryFlutterMemoryTrimmer.Trimmable {
+    static final String PARAM_OCCURRENCES = "Flurry.Occurrences";
+
+    static final long DEFAULT_WINDOW_MILLIS = 60000;
+    static final int DEFAULT_MAX_FINGERPRINTS = 128;
+
+    private static final int MAX_NORMALIZED_LENGTH = 256;
+    private static final char SEPARATOR = '\u001f';
+
+    /**
+     * Receiver of the errors that pass the filter.
+     */
+    interface Reporter {
+        void report(String errorId, String message, String errorClass, Map<String, String> parameters);
+    }
+
+    private static class Entry {
+        final String errorId;
+        final String message;
+        final String errorClass;
+        final Map<String, String> parameters;
+        long windowStart;
+        int suppressed;
+
+        Entry(String errorId, String message, String errorClass, Map<String, String> parameters, long windowStart) {
+            this.errorId = errorId;
+            this.message = message;
+            this.errorClass = errorClass;
+            this.parameters = parameters;
+            this.windowStart = windowStart;
+        }
+    }
+
+    private static class Report {
+        final String errorId;
+        final String message;
+        final String errorClass;
+        final Map<String, String> parameters;
+
+        Report(String errorId, String message, String errorClass, Map<String, String> parameters) {
+            this.errorId = errorId;
+            this.message = message;
+            this.errorClass = errorClass;
+            this.parameters = parameters;
+        }
+    }
+
+    private final Reporter reporter;
+    private final LinkedHashMap<String, Entry> entries;
+    // The errors to report once the lock is released.
+    private final List<Report> pending = new ArrayList<>();
+
+    private boolean enabled = false;
+    private long windowMillis = DEFAULT_WINDOW_MILLIS;
+    private int maxFingerprints = DEFAULT_MAX_FINGERPRINTS;
+    private long suppressedCount = 0;
+
+    FlurryFlutterErrorFilter(Reporter reporter) {
+        this.reporter = reporter;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxFingerprints) {
+                    closeWindow(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    void configure(boolean enabled, long windowMillis, int maxFingerprints) {
+        List<Report> reports;
+        synchronized (this) {
+            if (!enabled) {
+                closeWindows();
+                entries.clear();
+            }
+            this.enabled = enabled;
+            this.windowMillis = Math.max(0, windowMillis);
+            this.maxFingerprints = Math.max(1, maxFingerprints);
+            reports = drain();
+        }
+        report(reports);
+    }
+
+    synchronized long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    void onError(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        List<Report> reports;
+        synchronized (this) {
+            if (enabled) {
+                filter(errorId, message, errorClass, parameters);
+            } else {
+                pending.add(new Report(errorId, message, errorClass, parameters));
+            }
+            reports = drain();
+        }
+        report(reports);
+    }
+
+    /**
+     * Reports the occurrence counts of all open windows.
+     */
+    void flush() {
+        List<Report> reports;
+        synchronized (this) {
+            closeWindows();
+            reports = drain();
+        }
+        report(reports);
+    }
+
+    /**
+     * Closes the open windows at the end of the session, when the app goes to the background.
+     */
+    @Override
+    public void pause() {
+        flush();
+    }
+
+    /**
+     * Reports the occurrence counts of the windows that have expired.
+     */
+    void flushExpired() {
+        List<Report> reports;
+        synchronized (this) {
+            long now = SystemClock.elapsedRealtime();
+            for (Entry entry : entries.values()) {
+                if (now - entry.windowStart >= windowMillis) {
+                    closeWindow(entry);
+                }
+            }
+            reports = drain();
+        }
+        report(reports);
+    }
+
+    /**
+     * Drops the least recently seen half of the fingerprints, or all of them.
+     */
+    @Override
+    public int trim(int level) {
+        int remove;
+        List<Report> reports;
+        synchronized (this) {
+            int size = entries.size();
+            remove = (level >= FlurryFlutterMemoryTrimmer.LEVEL_RELEASE) ? size : size / 2;
+            Iterator<Entry> iterator = entries.values().iterator();
+            for (int i = 0; i < remove && iterator.hasNext(); i++) {
+                closeWindow(iterator.next());
+                iterator.remove();
+            }
+            reports = drain();
+        }
+        report(reports);
+        return remove;
+    }
+
+    private void filter(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        long now = SystemClock.elapsedRealtime();
+        String fingerprint = fingerprint(errorId, message, errorClass);
+        Entry entry = entries.get(fingerprint);
+        if (entry != null) {
+            if (now - entry.windowStart < windowMillis) {
+                entry.suppressed++;
+                suppressedCount++;
+                return;
+            }
+            closeWindow(entry);
+            entries.remove(fingerprint);
+        }
+
+        entries.put(fingerprint, new Entry(errorId, message, errorClass, parameters, now));
+        pending.add(new Report(errorId, message, errorClass, parameters));
+    }
+
+    private void closeWindows() {
+        for (Entry entry : entries.values()) {
+            closeWindow(entry);
+        }
+    }
+
+    /**
+     * Queues the occurrence count of the window for the report, if there were repeats.
+     */
+    private void closeWindow(Entry entry) {
+        if (entry.suppressed == 0) {
+            return;
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+        if (entry.parameters != null) {
+            parameters.putAll(entry.parameters);
+        }
+        parameters.put(PARAM_OCCURRENCES, Integer.toString(entry.suppressed));
+        entry.suppressed = 0;
+        entry.windowStart = SystemClock.elapsedRealtime();
+        pending.add(new Report(entry.errorId, entry.message, entry.errorClass, parameters));
+    }
+
+    private List<Report> drain() {
+        if (pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Report> reports = new ArrayList<>(pending);
+        pending.clear();
+        return reports;
+    }
+
+    private void report(List<Report> reports) {
+        for (Report report : reports) {
+            reporter.report(report.errorId, report.message, report.errorClass, report.parameters);
+        }
+    }
+
+    static String fingerprint(String errorId, String message, String errorClass) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(errorId).append(SEPARATOR).append(errorClass).append(SEPARATOR);
+        normalize(message, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the message with the parts that vary between repeats of the same error
+     * (numbers, hex addresses and whitespace runs) collapsed.
+     */
+    static void normalize(String message, StringBuilder sb) {
+        if (message == null) {
+            return;
+        }
+
+        int start = sb.length();
+        int length = message.length();
+        boolean inNumber = false;
+        boolean inSpace = false;
+        for (int i = 0; i < length && sb.length() - start < MAX_NORMALIZED_LENGTH; i++) {
+            char c = message.charAt(i);
+            if (c == '0' && i + 1 < length && (message.charAt(i + 1) == 'x' || message.charAt(i + 1) == 'X')) {
+                // Hex address, e.g. 0x7f3a2c10.
+                i++;
+                while (i + 1 < length && Character.digit(message.charAt(i + 1), 16) >= 0) {
+                    i++;
+                }
+                if (!inNumber) {
+                    sb.append('#');
+                }
+                inNumber = true;
+                inSpace = false;
+            } else if (c >= '0' && c <= '9') {
+                if (!inNumber) {
+                    sb.append('#');
+                }
+                inNumber = true;
+                inSpace = false;
+            } else if (Character.isWhitespace(c)) {
+                if (!inSpace && sb.length() > start) {
+                    sb.append(' ');
+                }
+                inNumber = false;
+                inSpace = true;
+            } else {
+                sb.append(c);
+                inNumber = false;
+                inSpace = false;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counters of the event recording statuses, per status and per event.
+ *
+ * Lets the fire-and-forget logging methods skip the status reply, while Dart can still
+ * fetch the outcomes on demand, and gives the app local, real-time counts of what it logged.
+ * Counters are striped per thread (LongAdder-style, which is not available before API 24),
+ * so that concurrent updates don't contend on the same cache line. Every event id Dart logs is
+ * counted, also those the SDK or the plugin rejects, so the number of event ids is bounded and
+ * the ids past it are counted together.
+ */
+class FlurryFlutterEventCounters {
+    // The statuses are the indexes of the Dart EventRecordStatus enum, and must match it: the
+    // SDK statuses it knows, then the plugin statuses, for the payments filtered as duplicates,
+    // and the events dropped by an interceptor or the data budget.
+    static final int SDK_STATUS_COUNT = 8;
+    static final int STATUS_DUPLICATED = 8;
+    static final int STATUS_DROPPED = 9;
+    static final int STATUS_COUNT = 10;
+
+    // Up to 512 bytes of counters per event id.
+    static final int MAX_EVENT_IDS = 512;
+    static final String OTHER_EVENTS = "Flurry.OtherEvents";
+
+    // Longs per stripe, a multiple of 8 longs (64 bytes) so that stripes don't share cache lines.
+    private static final int ROW = (STATUS_COUNT + 7) & ~7;
+    private static final int STRIPES = stripes();
+
+    /**
+     * Counts per status, striped per thread.
+     */
+    static final class StatusCounter {
+        private final AtomicLongArray cells = new AtomicLongArray(STRIPES * ROW);
+
+        void increment(int status) {
+            int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            cells.incrementAndGet(stripe * ROW + status);
+        }
+
+        long get(int status) {
+            long sum = 0;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                sum += cells.get(stripe * ROW + status);
+            }
+            return sum;
+        }
+
+        long total() {
+            long sum = 0;
+            for (int status = 0; status < STATUS_COUNT; status++) {
+                sum += get(status);
+            }
+            return sum;
+        }
+
+        List<Long> toList() {
+            List<Long> counts = new ArrayList<>(STATUS_COUNT);
+            for (int status = 0; status < STATUS_COUNT; status++) {
+                counts.add(get(status));
+            }
+            return counts;
+        }
+
+        void reset() {
+            for (int i = 0; i < cells.length(); i++) {
+                cells.set(i, 0);
+            }
+        }
+    }
+
+    private final StatusCounter statusCounts = new StatusCounter();
+    private final ConcurrentHashMap<String, StatusCounter> eventCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the status of an SDK status. SDK statuses newer than the Dart enum are counted,
+     * and reported, as failed.
+     */
+    static int statusOf(FlurryEventRecordStatus status) {
+        int ordinal = status.ordinal();
+        return (ordinal < SDK_STATUS_COUNT) ? ordinal : FlurryEventRecordStatus.kFlurryEventFailed.ordinal();
+    }
+
+    void record(String eventId, int status) {
+        if (status < 0 || status >= STATUS_COUNT) {
+            return;
+        }
+
+        statusCounts.increment(status);
+        if (eventId != null) {
+            StatusCounter counter = eventCounts.get(eventId);
+            if (counter == null && eventCounts.size() >= MAX_EVENT_IDS) {
+                // Racing threads may add a few ids past the bound, no more than one each.
+                eventId = OTHER_EVENTS;
+                counter = eventCounts.get(eventId);
+            }
+            if (counter == null) {
+                StatusCounter newCounter = new StatusCounter();
+                counter = eventCounts.putIfAbsent(eventId, newCounter);
+                if (counter == null) {
+                    counter = newCounter;
+                }
+            }
+            counter.increment(status);
+        }
+    }
+
+    /**
+     * Returns the number of times the event was logged, or recorded if onlyRecorded. The events
+     * past the bound are only counted as {@link #OTHER_EVENTS}.
+     */
+    long getCount(String eventId, boolean onlyRecorded) {
+        StatusCounter counter = eventCounts.get(eventId);
+        if (counter == null) {
+            return 0;
+        }
+        return onlyRecorded ? counter.get(FlurryEventRecordStatus.kFlurryEventRecorded.ordinal()) : counter.total();
+    }
+
+    /**
+     * Resets the counts of the event, or all the counts if eventId is null.
+     */
+    void reset(String eventId) {
+        if (eventId != null) {
+            eventCounts.remove(eventId);
+            return;
+        }
+
+        statusCounts.reset();
+        eventCounts.clear();
+    }
+
+    /**
+     * Returns the counts as {"statuses": [count per status ordinal], "events": {eventId: count},
+     * "eventStatuses": {eventId: [count per status ordinal]}}.
+     */
+    Map<String, Object> snapshot() {
+        Map<String, Long> events = new HashMap<>();
+        Map<String, List<Long>> eventStatuses = new HashMap<>();
+        for (Map.Entry<String, StatusCounter> entry : eventCounts.entrySet()) {
+            List<Long> counts = entry.getValue().toList();
+            long total = 0;
+            for (Long count : counts) {
+                total += count;
+            }
+            events.put(entry.getKey(), total);
+            eventStatuses.put(entry.getKey(), counts);
+        }
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("statuses", statusCounts.toList());
+        snapshot.put("events", events);
+        snapshot.put("eventStatuses", eventStatuses);
+        return snapshot;
+    }
+
+    private static int stripes() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+        return (processors >= 4) ? 4 : (processors >= 2) ? 2 : 1;
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+/**
+ * Receiver of a copy of the calls forwarded to the Flurry SDK, after they are made.
+ *
+ * Calls dropped by the plugin, e.g. throttled, duplicated, intercepted or over budget, are not
+ * exported. Exporters are registered with {@link FlurryFlutterPlugin#addEventExporter}, and
+ * called on the thread of the SDK call, usually the UI main thread; they must return quickly.
+ */
+public interface FlurryFlutterEventExporter {
+    /**
+     * Exports an SDK call.
+     *
+     * @param timestampMillis the wall clock time of the call.
+     * @param method          the SDK call: logEvent, logStandardEvent, logPayment, endTimedEvent,
+     *                        onError or logBreadcrumb.
+     * @param arguments       a map of the arguments given to the SDK, e.g. eventId, parameters
+     *                        and timedId, and the returned status name of the logging calls.
+     */
+    void export(long timestampMillis, String method, Object arguments);
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import com.flurry.android.FlurryEvent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Native interceptor of the events on their way to the Flurry SDK, to filter, enrich or
+ * rewrite them centrally.
+ *
+ * Interceptors are registered with {@link FlurryFlutterPlugin#addEventInterceptor}, and run in
+ * registration order on the calling thread for the logged events, standard events, payments,
+ * errors and timed event ends. An interceptor that returns false drops the event: the
+ * interceptors after it and the SDK don't see it, and the logging call returns the plugin
+ * status eventDropped. A dropped timed event end only drops its parameters, the timed event
+ * still ends.
+ */
+public interface FlurryFlutterEventInterceptor {
+
+    /**
+     * Intercepts an event, and may rewrite it in place.
+     *
+     * @return true to pass the event on, false to drop it.
+     */
+    boolean intercept(Event event);
+
+    /**
+     * An event on its way to the Flurry SDK.
+     */
+    final class Event {
+        public enum Type {
+            EVENT,
+            STANDARD_EVENT,
+            PAYMENT,
+            ERROR,
+            END_TIMED_EVENT
+        }
+
+        private final Type type;
+        private String id;
+        private Map<String, String> parameters;
+        private boolean parametersCopied = false;
+        private final boolean timed;
+        private final String timedId;
+        private final FlurryEvent.Params standardParams;
+        private String message;
+        private final String errorClass;
+
+        private Event(Type type, String id, Map<String, String> parameters, boolean timed, String timedId,
+                      FlurryEvent.Params standardParams, String message, String errorClass) {
+            this.type = type;
+            this.id = id;
+            this.parameters = parameters;
+            this.timed = timed;
+            this.timedId = timedId;
+            this.standardParams = standardParams;
+            this.message = message;
+            this.errorClass = errorClass;
+        }
+
+        static Event event(String eventId, Map<String, String> parameters, boolean timed, String timedId) {
+            return new Event(Type.EVENT, eventId, parameters, timed, timedId, null, null, null);
+        }
+
+        static Event standardEvent(FlurryEvent event, FlurryEvent.Params params) {
+            return new Event(Type.STANDARD_EVENT, event.toString(), null, false, null, params, null, null);
+        }
+
+        static Event payment(String productId, Map<String, String> parameters) {
+            return new Event(Type.PAYMENT, productId, parameters, false, null, null, null, null);
+        }
+
+        static Event endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+            return new Event(Type.END_TIMED_EVENT, eventId, parameters, true, timedId, null, null, null);
+        }
+
+        static Event error(String errorId, String message, String errorClass, Map<String, String> parameters) {
+            return new Event(Type.ERROR, errorId, parameters, false, null, null, message, errorClass);
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * Returns the event id, the standard event name, the payment product id, or the error id.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Renames a logged event, a timed event end or an error.
+         */
+        public void setId(String id) {
+            if (type == Type.STANDARD_EVENT || type == Type.PAYMENT) {
+                throw new UnsupportedOperationException("Cannot rename a " + type + " event");
+            }
+            this.id = id;
+        }
+
+        /**
+         * Returns the read-only parameters, empty for a standard event, see
+         * {@link #getStandardParams()}.
+         */
+        public Map<String, String> getParameters() {
+            return (parameters != null) ? Collections.unmodifiableMap(parameters)
+                    : Collections.<String, String>emptyMap();
+        }
+
+        public void putParameter(String key, String value) {
+            mutableParameters().put(key, value);
+        }
+
+        public void removeParameter(String key) {
+            if (parameters != null && parameters.containsKey(key)) {
+                mutableParameters().remove(key);
+            }
+        }
+
+        public void setParameters(Map<String, String> parameters) {
+            checkParameters();
+            this.parameters = parameters;
+            this.parametersCopied = false;
+        }
+
+        /**
+         * Returns the parameters of a standard event, they can be edited in place.
+         */
+        public FlurryEvent.Params getStandardParams() {
+            return standardParams;
+        }
+
+        public boolean isTimed() {
+            return timed;
+        }
+
+        public String getTimedId() {
+            return timedId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public String getErrorClass() {
+            return errorClass;
+        }
+
+        /**
+         * Returns the parameters as passed to the SDK, null if there are none.
+         */
+        Map<String, String> parameters() {
+            return parameters;
+        }
+
+        // The parameters come from Dart or the default parameters, and are copied on first write.
+        private Map<String, String> mutableParameters() {
+            checkParameters();
+            if (!parametersCopied) {
+                parameters = (parameters != null) ? new HashMap<>(parameters) : new HashMap<String, String>();
+                parametersCopied = true;
+            }
+            return parameters;
+        }
+
+        private void checkParameters() {
+            if (type == Type.STANDARD_EVENT) {
+                throw new UnsupportedOperationException("Standard event parameters are edited with getStandardParams()");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of the plugin call arguments, for the local event log.
+ */
+final class FlurryFlutterEventLogCodec {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte STRING = 6;
+    private static final byte LIST = 7;
+    private static final byte MAP = 8;
+
+    private FlurryFlutterEventLogCodec() {
+    }
+
+    /**
+     * Writes the value to the buffer, and returns the buffer, grown if needed.
+     */
+    static ByteBuffer writeValue(ByteBuffer buffer, Object value) {
+        if (value == null) {
+            buffer = ensure(buffer, 1);
+            buffer.put(NULL);
+        } else if (value instanceof Boolean) {
+            buffer = ensure(buffer, 1);
+            buffer.put(((Boolean) value) ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            buffer = ensure(buffer, 5);
+            buffer.put(INT).putInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            buffer = ensure(buffer, 9);
+            buffer.put(LONG).putLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            buffer = ensure(buffer, 9);
+            buffer.put(DOUBLE).putDouble(((Number) value).doubleValue());
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            buffer = ensure(buffer, 5);
+            buffer.put(LIST).putInt(list.size());
+            for (Object item : list) {
+                buffer = writeValue(buffer, item);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            buffer = ensure(buffer, 5);
+            buffer.put(MAP).putInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                buffer = writeValue(buffer, entry.getKey());
+                buffer = writeValue(buffer, entry.getValue());
+            }
+        } else {
+            byte[] bytes = value.toString().getBytes(UTF_8);
+            buffer = ensure(buffer, 5 + bytes.length);
+            buffer.put(STRING).putInt(bytes.length).put(bytes);
+        }
+        return buffer;
+    }
+
+    static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case STRING:
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return new String(bytes, UTF_8);
+            case LIST:
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(buffer));
+                }
+                return list;
+            case MAP:
+                size = buffer.getInt();
+                Map<Object, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue(buffer);
+                    map.put(key, readValue(buffer));
+                }
+                return map;
+            default:
+                throw new IllegalArgumentException("Unknown value type: " + type);
+        }
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int length) {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + length);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the local event log written by the plugin, e.g. from a copy pulled off a device.
+ */
+public final class FlurryFlutterEventLogReader {
+
+    /**
+     * A plugin call read from the log.
+     */
+    public static final class Record {
+        public final long timestampMillis;
+        public final String method;
+        public final Object arguments;
+
+        Record(long timestampMillis, String method, Object arguments) {
+            this.timestampMillis = timestampMillis;
+            this.method = method;
+            this.arguments = arguments;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("timestampMillis", timestampMillis);
+            map.put("method", method);
+            map.put("arguments", arguments);
+            return map;
+        }
+    }
+
+    private FlurryFlutterEventLogReader() {
+    }
+
+    /**
+     * Returns the records of the log in the directory, oldest first.
+     */
+    public static List<Record> read(File directory) throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[FlurryFlutterMappedEventLog.SEGMENT_COUNT];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = load(new File(directory, FlurryFlutterMappedEventLog.SEGMENT_PREFIX + i));
+        }
+
+        // The segment with the lower sequence holds the older records.
+        List<Record> records = new ArrayList<>();
+        int first = (segments[0] != null && segments[1] != null
+                && sequenceOf(segments[1]) < sequenceOf(segments[0])) ? 1 : 0;
+        for (int i = 0; i < segments.length; i++) {
+            ByteBuffer segment = segments[(first + i) % segments.length];
+            if (segment != null) {
+                readRecords(segment, records);
+            }
+        }
+        return records;
+    }
+
+    private static ByteBuffer load(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            byte[] bytes = new byte[(int) raf.length()];
+            raf.readFully(bytes);
+            ByteBuffer segment = ByteBuffer.wrap(bytes);
+            if (bytes.length < FlurryFlutterMappedEventLog.HEADER_SIZE
+                    || segment.getInt(0) != FlurryFlutterMappedEventLog.MAGIC
+                    || segment.getInt(4) != FlurryFlutterMappedEventLog.VERSION) {
+                return null;
+            }
+            return segment;
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static int sequenceOf(ByteBuffer segment) {
+        return segment.getInt(FlurryFlutterMappedEventLog.OFFSET_SEQUENCE);
+    }
+
+    private static void readRecords(ByteBuffer segment, List<Record> records) {
+        int end = Math.min(segment.getInt(FlurryFlutterMappedEventLog.OFFSET_END), segment.capacity());
+        segment.position(FlurryFlutterMappedEventLog.HEADER_SIZE);
+        segment.limit(end);
+        try {
+            while (segment.remaining() >= 4) {
+                int length = segment.getInt();
+                int next = segment.position() + length;
+                if (length < 8 || next > end) {
+                    break;
+                }
+                long timestampMillis = segment.getLong();
+                Object method = FlurryFlutterEventLogCodec.readValue(segment);
+                Object arguments = FlurryFlutterEventLogCodec.readValue(segment);
+                records.add(new Record(timestampMillis, String.valueOf(method), arguments));
+                segment.position(next);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // A torn record, e.g. the process died before the segment was forced.
+        }
+    }
+
+}
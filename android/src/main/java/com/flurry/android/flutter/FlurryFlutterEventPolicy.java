@@ -0,0 +1,185 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-event logging policy, driven by the reserved FlurryConfig key {@link #CONFIG_KEY}.
+ *
+ * The key holds a JSON object from event id to policy, where "*" is the policy of the events
+ * not listed. A policy is "allow", "block", or an object of:
+ * <ul>
+ *     <li>"block": true to drop all the events.</li>
+ *     <li>"sample": the rate of events logged, from 0 to 1.</li>
+ *     <li>"maxPerMinute": the maximum number of events logged per minute.</li>
+ * </ul>
+ * e.g. {"LevelTick": {"sample": 0.01}, "Scroll": {"maxPerMinute": 30}, "Debug": "block"}.
+ *
+ * The policy is compiled into an immutable table when the config is activated, and looked up
+ * without locking on the logging path.
+ */
+class FlurryFlutterEventPolicy {
+    private static final String TAG = "FlurryFlutterPolicy";
+
+    static final String CONFIG_KEY = "flurry_flutter_event_policy";
+    static final String DEFAULT_EVENT = "*";
+
+    private static final long MINUTE_MILLIS = 60 * 1000;
+
+    static final class Rule {
+        final boolean block;
+        final double sampleRate;
+        final int maxPerMinute;
+
+        private final AtomicLong windowStart = new AtomicLong();
+        private final AtomicInteger windowCount = new AtomicInteger();
+
+        Rule(boolean block, double sampleRate, int maxPerMinute) {
+            this.block = block;
+            this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+            this.maxPerMinute = maxPerMinute;
+        }
+
+        boolean allow(Random random) {
+            if (block) {
+                return false;
+            }
+            if (sampleRate < 1 && random.nextDouble() >= sampleRate) {
+                return false;
+            }
+            if (maxPerMinute >= 0) {
+                long now = SystemClock.elapsedRealtime();
+                long start = windowStart.get();
+                if (now - start >= MINUTE_MILLIS && windowStart.compareAndSet(start, now)) {
+                    windowCount.set(0);
+                }
+                return windowCount.incrementAndGet() <= maxPerMinute;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The compiled policy, published as a whole.
+     */
+    private static final class Table {
+        final Map<String, Rule> rules;
+        final Rule defaultRule;
+
+        Table(Map<String, Rule> rules, Rule defaultRule) {
+            this.rules = rules;
+            this.defaultRule = defaultRule;
+        }
+    }
+
+    private static final Table EMPTY_TABLE = new Table(Collections.<String, Rule>emptyMap(), null);
+
+    private final Random random = new Random();
+    private final AtomicLong throttledCount = new AtomicLong();
+
+    private volatile Table table = EMPTY_TABLE;
+    private String source = "";
+
+    /**
+     * Returns true if the event is dropped by the policy.
+     */
+    boolean isThrottled(String eventId) {
+        Table table = this.table;
+        Rule rule = table.rules.isEmpty() ? null : table.rules.get(eventId);
+        if (rule == null) {
+            rule = table.defaultRule;
+            if (rule == null) {
+                return false;
+            }
+        }
+
+        if (rule.allow(random)) {
+            return false;
+        }
+        throttledCount.incrementAndGet();
+        return true;
+    }
+
+    long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    /**
+     * Compiles the policy from the config value. An invalid value keeps the current policy.
+     */
+    synchronized void update(String json) {
+        if (json == null) {
+            json = "";
+        }
+        if (json.equals(source)) {
+            // Keep the rate limit windows of an unchanged policy.
+            return;
+        }
+
+        Map<String, Rule> compiled = new HashMap<>();
+        if (!json.isEmpty()) {
+            try {
+                JSONObject policy = new JSONObject(json);
+                Iterator<String> eventIds = policy.keys();
+                while (eventIds.hasNext()) {
+                    String eventId = eventIds.next();
+                    Rule rule = compile(policy.get(eventId));
+                    if (rule != null) {
+                        compiled.put(eventId, rule);
+                    }
+                }
+            } catch (JSONException e) {
+                Log.w(TAG, "Ignored invalid event policy " + CONFIG_KEY + ": " + e.getMessage());
+                return;
+            }
+        }
+
+        source = json;
+        Rule defaultRule = compiled.remove(DEFAULT_EVENT);
+        table = new Table(compiled, defaultRule);
+        Log.i(TAG, "Event policy updated, " + compiled.size() + " events");
+    }
+
+    private static Rule compile(Object policy) {
+        if ("allow".equals(policy)) {
+            return new Rule(false, 1, -1);
+        }
+        if ("block".equals(policy)) {
+            return new Rule(true, 1, -1);
+        }
+        if (policy instanceof JSONObject) {
+            JSONObject rule = (JSONObject) policy;
+            return new Rule(rule.optBoolean("block", false), rule.optDouble("sample", 1),
+                    rule.optInt("maxPerMinute", -1));
+        }
+        Log.w(TAG, "Ignored invalid event policy: " + policy);
+        return null;
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Delivers events to a Flutter EventChannel on the UI main thread.
+ *
+ * Events sent while no Dart listener is attached are kept in a bounded replay buffer, and
+ * delivered in one batch when the next listener attaches. The oldest events are dropped when
+ * the buffer is full, and events older than the TTL are dropped on delivery.
+ *
+ * Sent events wait in an outbox drained by one reused task on the main thread, and
+ * {@link FlurryFlutterPayload} events are recycled once delivered or dropped, so sending
+ * doesn't allocate once the arrays have grown to the event rate.
+ *
+ * When tracing is enabled, an async section follows each event from its send to its delivery
+ * on the main thread, and the calls to the Dart sink are traced.
+ */
+class FlurryFlutterEventStream implements EventChannel.StreamHandler, FlurryFlutterMemoryTrimmer.Trimmable {
+    static final int DEFAULT_CAPACITY = 32;
+    static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000;
+
+    private static final int OUTBOX_CAPACITY = 8;
+
+    private static Handler sMainHandler;
+    private static volatile Executor sMainExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            getMainHandler().post(command);
+        }
+    };
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private final String deliverySection;
+    private final String sinkSection;
+
+    private EventChannel.EventSink eventSink;
+    private Object[] events;
+    private long[] timestamps;
+    private int head = 0;
+    private int size = 0;
+    private long ttlMillis = DEFAULT_TTL_MILLIS;
+
+    private Object[] outbox = new Object[OUTBOX_CAPACITY];
+    private long[] outboxTimestamps = new long[OUTBOX_CAPACITY];
+    private int[] outboxCookies = new int[OUTBOX_CAPACITY];
+    private int outboxSize = 0;
+    private boolean drainPosted = false;
+
+    FlurryFlutterEventStream(String name) {
+        this.deliverySection = "Flurry:" + name + ":delivery";
+        this.sinkSection = "Flurry:" + name + ":eventSink";
+        this.events = new Object[DEFAULT_CAPACITY];
+        this.timestamps = new long[DEFAULT_CAPACITY];
+    }
+
+    @Override
+    public void onListen(Object arguments, EventChannel.EventSink eventSink) {
+        attach(eventSink);
+    }
+
+    @Override
+    public void onCancel(Object arguments) {
+        detach();
+    }
+
+    /**
+     * Attaches the Dart listener and delivers the buffered events to it.
+     */
+    synchronized void attach(EventChannel.EventSink eventSink) {
+        this.eventSink = eventSink;
+
+        long now = SystemClock.elapsedRealtime();
+        while (size > 0) {
+            Object event = events[head];
+            long timestamp = timestamps[head];
+            events[head] = null;
+            head = (head + 1) % events.length;
+            size--;
+            if (now - timestamp <= ttlMillis) {
+                success(event);
+            }
+            recycle(event);
+        }
+        head = 0;
+    }
+
+    synchronized void detach() {
+        this.eventSink = null;
+    }
+
+    synchronized boolean hasListener() {
+        return eventSink != null;
+    }
+
+    /**
+     * Resizes the replay buffer, keeping the most recent events.
+     */
+    synchronized void configure(int capacity, long ttlMillis) {
+        capacity = Math.max(1, capacity);
+        Object[] newEvents = new Object[capacity];
+        long[] newTimestamps = new long[capacity];
+        int keep = Math.min(size, capacity);
+        for (int i = 0; i < size - keep; i++) {
+            recycle(events[(head + i) % events.length]);
+        }
+        for (int i = 0; i < keep; i++) {
+            int index = (head + size - keep + i) % events.length;
+            newEvents[i] = events[index];
+            newTimestamps[i] = timestamps[index];
+        }
+        events = newEvents;
+        timestamps = newTimestamps;
+        head = 0;
+        size = keep;
+        this.ttlMillis = Math.max(0, ttlMillis);
+    }
+
+    /**
+     * Drops the expired buffered events, or all of them.
+     */
+    @Override
+    public synchronized int trim(int level) {
+        long now = SystemClock.elapsedRealtime();
+        boolean release = level >= FlurryFlutterMemoryTrimmer.LEVEL_RELEASE;
+        int dropped = 0;
+        while (size > 0 && (release || now - timestamps[head] > ttlMillis)) {
+            recycle(events[head]);
+            events[head] = null;
+            head = (head + 1) % events.length;
+            size--;
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * Sends the event to Dart from any thread.
+     */
+    void send(Object event) {
+        long timestamp = SystemClock.elapsedRealtime();
+        int cookie = FlurryFlutterTracer.beginAsyncSection(deliverySection);
+        synchronized (this) {
+            if (outboxSize == outbox.length) {
+                outbox = Arrays.copyOf(outbox, outboxSize * 2);
+                outboxTimestamps = Arrays.copyOf(outboxTimestamps, outboxSize * 2);
+                outboxCookies = Arrays.copyOf(outboxCookies, outboxSize * 2);
+            }
+            outbox[outboxSize] = event;
+            outboxTimestamps[outboxSize] = timestamp;
+            outboxCookies[outboxSize] = cookie;
+            outboxSize++;
+            if (drainPosted) {
+                return;
+            }
+            drainPosted = true;
+        }
+
+        // Run Flutter event channel on the UI main thread.
+        sMainExecutor.execute(drainTask);
+    }
+
+    private synchronized void drain() {
+        drainPosted = false;
+        for (int i = 0; i < outboxSize; i++) {
+            FlurryFlutterTracer.endAsyncSection(deliverySection, outboxCookies[i]);
+            deliver(outbox[i], outboxTimestamps[i]);
+            outbox[i] = null;
+        }
+        outboxSize = 0;
+    }
+
+    private void deliver(Object event, long timestamp) {
+        if (eventSink != null) {
+            success(event);
+            recycle(event);
+            return;
+        }
+
+        if (size == events.length) {
+            // Drop the oldest event.
+            recycle(events[head]);
+            events[head] = null;
+            head = (head + 1) % events.length;
+            size--;
+        }
+        int tail = (head + size) % events.length;
+        events[tail] = event;
+        timestamps[tail] = timestamp;
+        size++;
+    }
+
+    private void success(Object event) {
+        boolean traced = FlurryFlutterTracer.beginSection(sinkSection);
+        try {
+            eventSink.success(event);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    private static void recycle(Object event) {
+        if (event instanceof FlurryFlutterPayload) {
+            ((FlurryFlutterPayload) event).recycle();
+        }
+    }
+
+    static synchronized Handler getMainHandler() {
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+
+    /**
+     * Replaces the UI main thread, e.g. with the calling thread in JVM tests.
+     */
+    @VisibleForTesting
+    static void setMainExecutor(Executor executor) {
+        sMainExecutor = executor;
+    }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.flurry.android.flutter;
+
+import android.util.Log;
+
+import com.flurry.android.FlurryEvent;
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Innermost stage of the SDK calls, that exports a copy of every call forwarded to the Flurry
+ * SDK to the registered {@link FlurryFlutterEventExporter}s.
+ *
+ * Sits behind the event policy, the payment filter, the interceptors and the data budget, so
+ * that the calls they drop are not exported, and the exported arguments are the ones the SDK
+ * got: with the default parameters merged, rewritten by the interceptors, and scrubbed.
+ */
+class FlurryFlutterExportingSdk implements FlurryFlutterSdk {
+    private static final String TAG = "FlurryFlutterExport";
+
+    private static final FlurryFlutterEventExporter[] NO_EXPORTERS = new FlurryFlutterEventExporter[0];
+
+    private volatile FlurryFlutterSdk sdk;
+    private volatile FlurryFlutterEventExporter[] exporters = NO_EXPORTERS;
+
+    FlurryFlutterExportingSdk(FlurryFlutterSdk sdk) {
+        this.sdk = sdk;
+    }
+
+    void setSdk(FlurryFlutterSdk sdk) {
+        this.sdk = sdk;
+    }
+
+    synchronized void addExporter(FlurryFlutterEventExporter exporter) {
+        List<FlurryFlutterEventExporter> list = new ArrayList<>(Arrays.asList(exporters));
+        list.add(exporter);
+        exporters = list.toArray(NO_EXPORTERS);
+    }
+
+    synchronized void removeExporter(FlurryFlutterEventExporter exporter) {
+        List<FlurryFlutterEventExporter> list = new ArrayList<>(Arrays.asList(exporters));
+        list.remove(exporter);
+        exporters = list.toArray(NO_EXPORTERS);
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId) {
+        FlurryEventRecordStatus status = sdk.logEvent(eventId);
+        if (exporters.length > 0) {
+            export("logEvent", event(eventId, null), status);
+        }
+        return status;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters) {
+        FlurryEventRecordStatus status = sdk.logEvent(eventId, parameters);
+        if (exporters.length > 0) {
+            export("logEvent", event(eventId, parameters), status);
+        }
+        return status;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, boolean timed) {
+        FlurryEventRecordStatus status = sdk.logEvent(eventId, timed);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = event(eventId, null);
+            arguments.put("timed", timed);
+            export("logEvent", arguments, status);
+        }
+        return status;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, boolean timed) {
+        FlurryEventRecordStatus status = sdk.logEvent(eventId, parameters, timed);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = event(eventId, parameters);
+            arguments.put("timed", timed);
+            export("logEvent", arguments, status);
+        }
+        return status;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, String timedId) {
+        FlurryEventRecordStatus status = sdk.logEvent(eventId, timedId);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = event(eventId, null);
+            arguments.put("timedId", timedId);
+            export("logEvent", arguments, status);
+        }
+        return status;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, String timedId) {
+        FlurryEventRecordStatus status = sdk.logEvent(eventId, parameters, timedId);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = event(eventId, parameters);
+            arguments.put("timedId", timedId);
+            export("logEvent", arguments, status);
+        }
+        return status;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(FlurryEvent event, FlurryEvent.Params params) {
+        FlurryEventRecordStatus status = sdk.logEvent(event, params);
+        if (exporters.length > 0) {
+            Map<String, String> parameters = null;
+            if (params != null) {
+                parameters = new HashMap<>();
+                for (Map.Entry<Object, String> entry : params.getParams().entrySet()) {
+                    parameters.put(entry.getKey().toString(), entry.getValue());
+                }
+            }
+            export("logStandardEvent", event(event.toString(), parameters), status);
+        }
+        return status;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logPayment(String productName, String productId, int quantity, double price,
+                                              String currency, String transactionId, Map<String, String> parameters) {
+        FlurryEventRecordStatus status = sdk.logPayment(productName, productId, quantity, price, currency,
+                transactionId, parameters);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("productName", productName);
+            arguments.put("productId", productId);
+            arguments.put("quantity", quantity);
+            arguments.put("price", price);
+            arguments.put("currency", currency);
+            arguments.put("transactionId", transactionId);
+            arguments.put("parameters", parameters);
+            export("logPayment", arguments, status);
+        }
+        return status;
+    }
+
+    @Override
+    public void endTimedEvent(String eventId) {
+        sdk.endTimedEvent(eventId);
+        if (exporters.length > 0) {
+            export("endTimedEvent", event(eventId, null), null);
+        }
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters) {
+        sdk.endTimedEvent(eventId, parameters);
+        if (exporters.length > 0) {
+            export("endTimedEvent", event(eventId, parameters), null);
+        }
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, String timedId) {
+        sdk.endTimedEvent(eventId, timedId);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = event(eventId, null);
+            arguments.put("timedId", timedId);
+            export("endTimedEvent", arguments, null);
+        }
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+        sdk.endTimedEvent(eventId, parameters, timedId);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = event(eventId, parameters);
+            arguments.put("timedId", timedId);
+            export("endTimedEvent", arguments, null);
+        }
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass) {
+        sdk.onError(errorId, message, errorClass);
+        if (exporters.length > 0) {
+            export("onError", error(errorId, message, errorClass, null), null);
+        }
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        sdk.onError(errorId, message, errorClass, parameters);
+        if (exporters.length > 0) {
+            export("onError", error(errorId, message, errorClass, parameters), null);
+        }
+    }
+
+    @Override
+    public void logBreadcrumb(String crashBreadcrumb) {
+        sdk.logBreadcrumb(crashBreadcrumb);
+        if (exporters.length > 0) {
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("crashBreadcrumb", crashBreadcrumb);
+            export("logBreadcrumb", arguments, null);
+        }
+    }
+
+    @Override
+    public String getConfigString(String key, String defaultValue) {
+        return sdk.getConfigString(key, defaultValue);
+    }
+
+    private static Map<String, Object> event(String eventId, Map<String, String> parameters) {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("eventId", eventId);
+        if (parameters != null) {
+            arguments.put("parameters", parameters);
+        }
+        return arguments;
+    }
+
+    private static Map<String, Object> error(String errorId, String message, String errorClass,
+                                             Map<String, String> parameters) {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("errorId", errorId);
+        arguments.put("message", message);
+        arguments.put("errorClass", errorClass);
+        if (parameters != null) {
+            arguments.put("parameters", parameters);
+        }
+        return arguments;
+    }
+
+    private void export(String method, Map<String, Object> arguments, FlurryEventRecordStatus status) {
+        if (status != null) {
+            arguments.put("status", status.name());
+        }
+
+        long now = System.currentTimeMillis();
+        for (FlurryFlutterEventExporter exporter : exporters) {
+            try {
+                exporter.export(now, method, arguments);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to export " + method, e);
+            }
+        }
+    }
+
+}
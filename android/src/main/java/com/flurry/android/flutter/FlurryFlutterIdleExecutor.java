@@ -0,0 +1,179 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs non-urgent SDK work when the UI main looper is idle.
+ *
+ * Work is queued and run from a MessageQueue.IdleHandler, a few milliseconds at a time, so
+ * that it doesn't compete with the frames being rendered. Work that waited for the maximum
+ * deferral is run anyway, so a busy looper never starves it, and all the queued work is run
+ * when the app goes to the background. Deferral is opt-in, work is run immediately otherwise.
+ *
+ * The work is run in order, deferred SDK calls such as user property updates depend on it: the
+ * queued work runs first when new work can't be deferred, and work from other threads is
+ * posted to the UI main thread while deferral is on. The queue is used on that thread only.
+ */
+class FlurryFlutterIdleExecutor implements MessageQueue.IdleHandler, FlurryFlutterLifecycle.Flushable {
+    private static final String TAG = "FlurryFlutterIdle";
+
+    static final long DEFAULT_MAX_DEFERRAL_MILLIS = 1000;
+    static final int MAX_PENDING = 256;
+
+    // Time spent running work per idle pass.
+    private static final long IDLE_SLICE_MILLIS = 4;
+
+    private static class Task {
+        final Runnable work;
+        final long deadline;
+
+        Task(Runnable work, long deadline) {
+            this.work = work;
+            this.deadline = deadline;
+        }
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayDeque<Task> pending = new ArrayDeque<>();
+    private final Runnable deadlineTask = new Runnable() {
+        @Override
+        public void run() {
+            runOverdue();
+        }
+    };
+
+    private volatile boolean enabled = false;
+    private long maxDeferralMillis = DEFAULT_MAX_DEFERRAL_MILLIS;
+    private boolean idleHandlerAdded = false;
+
+    private long immediateCount = 0;
+    private long deferredCount = 0;
+    private long idleRunCount = 0;
+    private long deadlineRunCount = 0;
+
+    void configure(boolean enabled, long maxDeferralMillis) {
+        this.maxDeferralMillis = Math.max(0, maxDeferralMillis);
+        this.enabled = enabled;
+        if (!enabled) {
+            flush();
+        }
+    }
+
+    void execute(final Runnable work) {
+        boolean mainThread = Looper.myLooper() == Looper.getMainLooper();
+        if (enabled && !mainThread) {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    execute(work);
+                }
+            });
+            return;
+        }
+        if (!enabled || maxDeferralMillis == 0 || pending.size() >= MAX_PENDING) {
+            if (mainThread) {
+                flush();
+            }
+            immediateCount++;
+            work.run();
+            return;
+        }
+
+        deferredCount++;
+        pending.addLast(new Task(work, SystemClock.uptimeMillis() + maxDeferralMillis));
+        if (pending.size() == 1) {
+            handler.postDelayed(deadlineTask, maxDeferralMillis);
+        }
+        if (!idleHandlerAdded) {
+            Looper.myQueue().addIdleHandler(this);
+            idleHandlerAdded = true;
+        }
+    }
+
+    /**
+     * Runs queued work for a time slice, and stays registered while work remains.
+     */
+    @Override
+    public boolean queueIdle() {
+        long sliceEnd = SystemClock.uptimeMillis() + IDLE_SLICE_MILLIS;
+        while (!pending.isEmpty() && SystemClock.uptimeMillis() < sliceEnd) {
+            idleRunCount++;
+            run(pending.pollFirst().work);
+        }
+
+        idleHandlerAdded = !pending.isEmpty();
+        if (!idleHandlerAdded) {
+            handler.removeCallbacks(deadlineTask);
+        }
+        return idleHandlerAdded;
+    }
+
+    /**
+     * Runs all the queued work.
+     */
+    @Override
+    public void flush() {
+        handler.removeCallbacks(deadlineTask);
+        while (!pending.isEmpty()) {
+            run(pending.pollFirst().work);
+        }
+    }
+
+    /**
+     * Returns {"immediate", "deferred", "ranOnIdle", "ranOnDeadline", "pending"} counts.
+     */
+    Map<String, Object> getCounts() {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("immediate", immediateCount);
+        counts.put("deferred", deferredCount);
+        counts.put("ranOnIdle", idleRunCount);
+        counts.put("ranOnDeadline", deadlineRunCount);
+        counts.put("pending", pending.size());
+        return counts;
+    }
+
+    private void runOverdue() {
+        long now = SystemClock.uptimeMillis();
+        while (!pending.isEmpty() && pending.peekFirst().deadline <= now) {
+            deadlineRunCount++;
+            run(pending.pollFirst().work);
+        }
+
+        if (!pending.isEmpty()) {
+            handler.postDelayed(deadlineTask, pending.peekFirst().deadline - now);
+        }
+    }
+
+    private static void run(Runnable work) {
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to run deferred work.", e);
+        }
+    }
+
+}
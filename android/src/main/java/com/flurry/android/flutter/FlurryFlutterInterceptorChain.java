@@ -0,0 +1,343 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.util.Log;
+
+import com.flurry.android.FlurryEvent;
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the registered {@link FlurryFlutterEventInterceptor}s in front of the Flurry SDK calls.
+ *
+ * The chain is compiled into an array on registration, and read through a volatile reference
+ * when dispatching, so the logging path doesn't lock. With no interceptor, the calls go
+ * straight to the SDK without creating an event. The time spent in each interceptor, and the
+ * events it saw and dropped, are counted.
+ *
+ * A dropped event is reported to the plugin as a null status, see {@link FlurryFlutterSdk}.
+ */
+class FlurryFlutterInterceptorChain implements FlurryFlutterSdk {
+    private static final String TAG = "FlurryFlutterIntercept";
+
+    private static final class Entry {
+        final String name;
+        final FlurryFlutterEventInterceptor interceptor;
+        final boolean last;
+        final AtomicLong callCount = new AtomicLong();
+        final AtomicLong droppedCount = new AtomicLong();
+        final AtomicLong errorCount = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+
+        Entry(String name, FlurryFlutterEventInterceptor interceptor, boolean last) {
+            this.name = name;
+            this.interceptor = interceptor;
+            this.last = last;
+        }
+    }
+
+    private final FlurryFlutterSdk sdk;
+    private volatile Entry[] entries = new Entry[0];
+
+    FlurryFlutterInterceptorChain(FlurryFlutterSdk sdk) {
+        this.sdk = sdk;
+    }
+
+    /**
+     * Appends the interceptor to the chain, or moves it to the end if it is already there.
+     * It runs before the interceptors added with {@link #addLast}.
+     */
+    synchronized void add(String name, FlurryFlutterEventInterceptor interceptor) {
+        List<Entry> chain = without(interceptor);
+        int index = 0;
+        while (index < chain.size() && !chain.get(index).last) {
+            index++;
+        }
+        chain.add(index, new Entry((name != null) ? name : interceptor.getClass().getName(), interceptor, false));
+        entries = chain.toArray(new Entry[0]);
+    }
+
+    /**
+     * Appends the interceptor to the very end of the chain, e.g. to see the events as the
+     * SDK will.
+     */
+    synchronized void addLast(String name, FlurryFlutterEventInterceptor interceptor) {
+        List<Entry> chain = without(interceptor);
+        chain.add(new Entry(name, interceptor, true));
+        entries = chain.toArray(new Entry[0]);
+    }
+
+    synchronized void remove(FlurryFlutterEventInterceptor interceptor) {
+        entries = without(interceptor).toArray(new Entry[0]);
+    }
+
+    /**
+     * Returns the counts per interceptor, in chain order.
+     */
+    List<Map<String, Object>> getCounts() {
+        Entry[] chain = entries;
+        List<Map<String, Object>> counts = new ArrayList<>(chain.length);
+        for (Entry entry : chain) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("name", entry.name);
+            item.put("calls", entry.callCount.get());
+            item.put("dropped", entry.droppedCount.get());
+            item.put("errors", entry.errorCount.get());
+            item.put("totalMicros", entry.totalNanos.get() / 1000);
+            counts.add(item);
+        }
+        return counts;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            return sdk.logEvent(eventId);
+        }
+        return logEvent(chain, FlurryFlutterEventInterceptor.Event.event(eventId, null, false, null));
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            return sdk.logEvent(eventId, parameters);
+        }
+        return logEvent(chain, FlurryFlutterEventInterceptor.Event.event(eventId, parameters, false, null));
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, boolean timed) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            return sdk.logEvent(eventId, timed);
+        }
+        return logEvent(chain, FlurryFlutterEventInterceptor.Event.event(eventId, null, timed, null));
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, boolean timed) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            return sdk.logEvent(eventId, parameters, timed);
+        }
+        return logEvent(chain, FlurryFlutterEventInterceptor.Event.event(eventId, parameters, timed, null));
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, String timedId) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            return sdk.logEvent(eventId, timedId);
+        }
+        return logEvent(chain, FlurryFlutterEventInterceptor.Event.event(eventId, null, true, timedId));
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, String timedId) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            return sdk.logEvent(eventId, parameters, timedId);
+        }
+        return logEvent(chain, FlurryFlutterEventInterceptor.Event.event(eventId, parameters, true, timedId));
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(FlurryEvent event, FlurryEvent.Params params) {
+        Entry[] chain = entries;
+        if (chain.length == 0 || intercept(chain, FlurryFlutterEventInterceptor.Event.standardEvent(event, params))) {
+            return sdk.logEvent(event, params);
+        }
+        return null;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logPayment(String productName, String productId, int quantity, double price,
+                                              String currency, String transactionId, Map<String, String> parameters) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            return sdk.logPayment(productName, productId, quantity, price, currency, transactionId, parameters);
+        }
+
+        FlurryFlutterEventInterceptor.Event payment = FlurryFlutterEventInterceptor.Event.payment(productId, parameters);
+        if (!intercept(chain, payment)) {
+            return null;
+        }
+        return sdk.logPayment(productName, productId, quantity, price, currency, transactionId, payment.parameters());
+    }
+
+    @Override
+    public void endTimedEvent(String eventId) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            sdk.endTimedEvent(eventId);
+            return;
+        }
+        endTimedEvent(chain, FlurryFlutterEventInterceptor.Event.endTimedEvent(eventId, null, null));
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            sdk.endTimedEvent(eventId, parameters);
+            return;
+        }
+        endTimedEvent(chain, FlurryFlutterEventInterceptor.Event.endTimedEvent(eventId, parameters, null));
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, String timedId) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            sdk.endTimedEvent(eventId, timedId);
+            return;
+        }
+        endTimedEvent(chain, FlurryFlutterEventInterceptor.Event.endTimedEvent(eventId, null, timedId));
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            sdk.endTimedEvent(eventId, parameters, timedId);
+            return;
+        }
+        endTimedEvent(chain, FlurryFlutterEventInterceptor.Event.endTimedEvent(eventId, parameters, timedId));
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            sdk.onError(errorId, message, errorClass);
+            return;
+        }
+        onError(chain, FlurryFlutterEventInterceptor.Event.error(errorId, message, errorClass, null));
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        Entry[] chain = entries;
+        if (chain.length == 0) {
+            sdk.onError(errorId, message, errorClass, parameters);
+            return;
+        }
+        onError(chain, FlurryFlutterEventInterceptor.Event.error(errorId, message, errorClass, parameters));
+    }
+
+    @Override
+    public void logBreadcrumb(String crashBreadcrumb) {
+        sdk.logBreadcrumb(crashBreadcrumb);
+    }
+
+    @Override
+    public String getConfigString(String key, String defaultValue) {
+        return sdk.getConfigString(key, defaultValue);
+    }
+
+    private FlurryEventRecordStatus logEvent(Entry[] chain, FlurryFlutterEventInterceptor.Event event) {
+        if (!intercept(chain, event)) {
+            return null;
+        }
+
+        String eventId = event.getId();
+        Map<String, String> parameters = event.parameters();
+        if (event.getTimedId() != null) {
+            return (parameters == null)
+                    ? sdk.logEvent(eventId, event.getTimedId())
+                    : sdk.logEvent(eventId, parameters, event.getTimedId());
+        }
+        if (event.isTimed()) {
+            return (parameters == null) ? sdk.logEvent(eventId, true) : sdk.logEvent(eventId, parameters, true);
+        }
+        return (parameters == null) ? sdk.logEvent(eventId) : sdk.logEvent(eventId, parameters);
+    }
+
+    private void endTimedEvent(Entry[] chain, FlurryFlutterEventInterceptor.Event end) {
+        // A dropped end still ends the timed event, without its parameters.
+        Map<String, String> parameters = intercept(chain, end) ? end.parameters() : null;
+        String eventId = end.getId();
+        if (end.getTimedId() != null) {
+            if (parameters == null) {
+                sdk.endTimedEvent(eventId, end.getTimedId());
+            } else {
+                sdk.endTimedEvent(eventId, parameters, end.getTimedId());
+            }
+        } else if (parameters == null) {
+            sdk.endTimedEvent(eventId);
+        } else {
+            sdk.endTimedEvent(eventId, parameters);
+        }
+    }
+
+    private void onError(Entry[] chain, FlurryFlutterEventInterceptor.Event error) {
+        if (!intercept(chain, error)) {
+            return;
+        }
+
+        if (error.parameters() == null) {
+            sdk.onError(error.getId(), error.getMessage(), error.getErrorClass());
+        } else {
+            sdk.onError(error.getId(), error.getMessage(), error.getErrorClass(), error.parameters());
+        }
+    }
+
+    /**
+     * Runs the chain, and returns false if an interceptor dropped the event.
+     */
+    private static boolean intercept(Entry[] chain, FlurryFlutterEventInterceptor.Event event) {
+        for (Entry entry : chain) {
+            long start = System.nanoTime();
+            boolean pass;
+            try {
+                pass = entry.interceptor.intercept(event);
+            } catch (RuntimeException e) {
+                // A failing interceptor doesn't lose the event.
+                Log.e(TAG, "Interceptor " + entry.name + " failed.", e);
+                entry.errorCount.incrementAndGet();
+                pass = true;
+            }
+            entry.totalNanos.addAndGet(System.nanoTime() - start);
+            entry.callCount.incrementAndGet();
+            if (!pass) {
+                entry.droppedCount.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Entry> without(FlurryFlutterEventInterceptor interceptor) {
+        List<Entry> chain = new ArrayList<>(Arrays.asList(entries));
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            if (chain.get(i).interceptor == interceptor) {
+                chain.remove(i);
+            }
+        }
+        return chain;
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lifecycle-aware scheduling of the plugin work.
+ *
+ * Tracks whether the app is in the foreground from the started activities, starting with the
+ * Flutter activity, which may already be started when it attaches. When the app goes
+ * to the background, or the Flutter activity is detached, the pausable work is paused, all the
+ * natively buffered work is flushed and the periodic tasks are paused. The periodic tasks, and
+ * the resumable work, resume when the app returns to the foreground.
+ */
+class FlurryFlutterLifecycle implements Application.ActivityLifecycleCallbacks {
+    private static final String TAG = "FlurryFlutterLifecycle";
+
+    /**
+     * Plugin work that holds natively buffered data, flushed on background and before a memory
+     * trim.
+     */
+    interface Flushable {
+        void flush();
+    }
+
+    /**
+     * Plugin work that ends with the session when the app goes to the background. Unlike the
+     * flushables, it is not paused by a memory trim.
+     */
+    interface Pausable {
+        void pause();
+    }
+
+    /**
+     * Plugin work paused while the app is in the background.
+     */
+    interface Resumable {
+        void resume();
+    }
+
+    /**
+     * A task run on the UI main thread at a fixed interval, while the app is in the foreground.
+     */
+    final class PeriodicTask implements Runnable {
+        private final Runnable work;
+        private final long intervalMillis;
+        private boolean cancelled = false;
+
+        PeriodicTask(Runnable work, long intervalMillis) {
+            this.work = work;
+            this.intervalMillis = Math.max(1, intervalMillis);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+
+            work.run();
+            if (!cancelled && foreground) {
+                handler.postDelayed(this, intervalMillis);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            tasks.remove(this);
+            handler.removeCallbacks(this);
+        }
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<Flushable> flushables = new CopyOnWriteArrayList<>();
+    private final List<Pausable> pausables = new CopyOnWriteArrayList<>();
+    private final List<Resumable> resumables = new CopyOnWriteArrayList<>();
+    private final List<PeriodicTask> tasks = new CopyOnWriteArrayList<>();
+
+    private Application application;
+    // The activities started and not stopped yet. A set rather than a count, the Flutter activity
+    // is added on attach, and may or may not be started again after.
+    private final Set<Activity> startedActivities = Collections.newSetFromMap(new WeakHashMap<Activity, Boolean>());
+    private volatile boolean foreground = true;
+
+    /**
+     * Starts tracking the app lifecycle from the Flutter activity.
+     */
+    void attach(Activity activity) {
+        Application app = activity.getApplication();
+        if (app != null && app != application) {
+            if (application != null) {
+                application.unregisterActivityLifecycleCallbacks(this);
+            }
+            application = app;
+            application.registerActivityLifecycleCallbacks(this);
+        }
+        startedActivities.add(activity);
+        setForeground(true);
+    }
+
+    /**
+     * Stops tracking the app lifecycle when the Flutter activity goes away for good, and flushes
+     * and pauses the work as if the app went to the background.
+     */
+    void detach() {
+        if (application != null) {
+            application.unregisterActivityLifecycleCallbacks(this);
+            application = null;
+        }
+        startedActivities.clear();
+        setForeground(false);
+    }
+
+    boolean isForeground() {
+        return foreground;
+    }
+
+    void addFlushable(Flushable flushable) {
+        flushables.add(flushable);
+    }
+
+    void removeFlushable(Flushable flushable) {
+        flushables.remove(flushable);
+    }
+
+    void addPausable(Pausable pausable) {
+        pausables.add(pausable);
+    }
+
+    void addResumable(Resumable resumable) {
+        resumables.add(resumable);
+    }
+
+    /**
+     * Schedules the work to run every intervalMillis while the app is in the foreground.
+     */
+    PeriodicTask schedule(Runnable work, long intervalMillis) {
+        PeriodicTask task = new PeriodicTask(work, intervalMillis);
+        tasks.add(task);
+        if (foreground) {
+            handler.postDelayed(task, task.intervalMillis);
+        }
+        return task;
+    }
+
+    /**
+     * Flushes all the natively buffered work.
+     */
+    void flush() {
+        for (Flushable flushable : flushables) {
+            try {
+                flushable.flush();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to flush plugin work.", e);
+            }
+        }
+    }
+
+    private void setForeground(boolean foreground) {
+        if (this.foreground == foreground) {
+            return;
+        }
+
+        this.foreground = foreground;
+        if (foreground) {
+            for (PeriodicTask task : tasks) {
+                handler.removeCallbacks(task);
+                handler.postDelayed(task, task.intervalMillis);
+            }
+            for (Resumable resumable : resumables) {
+                try {
+                    resumable.resume();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Failed to resume plugin work.", e);
+                }
+            }
+        } else {
+            for (PeriodicTask task : tasks) {
+                handler.removeCallbacks(task);
+            }
+            for (Pausable pausable : pausables) {
+                try {
+                    pausable.pause();
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Failed to pause plugin work.", e);
+                }
+            }
+            flush();
+        }
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        startedActivities.add(activity);
+        setForeground(true);
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+        startedActivities.remove(activity);
+        if (startedActivities.isEmpty() && !activity.isChangingConfigurations()) {
+            setForeground(false);
+        }
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        startedActivities.remove(activity);
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Built-in exporter to a rolling, size-capped local log of the plugin calls.
+ *
+ * The log is two memory-mapped segment files of half the size each. Records are appended to
+ * the current segment with plain memory writes, and when it is full the other segment is
+ * cleared and becomes the current one, so the log keeps the most recent calls. The segments
+ * are forced to storage on a background thread, a few seconds after the first write of a
+ * batch, and when the app goes to the background.
+ *
+ * Segment layout: a header of magic, version, sequence and end offset ints, then records of
+ * a length int, a timestamp long, the method and the arguments, in
+ * {@link FlurryFlutterEventLogCodec} encoding. See {@link FlurryFlutterEventLogReader}.
+ */
+class FlurryFlutterMappedEventLog implements FlurryFlutterEventExporter, FlurryFlutterLifecycle.Flushable {
+    private static final String TAG = "FlurryFlutterEventLog";
+
+    static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+    static final int MIN_MAX_BYTES = 16 * 1024;
+    static final long FORCE_DELAY_MILLIS = 5000;
+
+    static final String SEGMENT_PREFIX = "events.";
+    static final int SEGMENT_COUNT = 2;
+
+    static final int MAGIC = 0x464c4f47;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int OFFSET_SEQUENCE = 8;
+    static final int OFFSET_END = 12;
+
+    private final MappedByteBuffer[] segments = new MappedByteBuffer[SEGMENT_COUNT];
+    private final int segmentSize;
+    private final Handler background;
+    private final Runnable forceTask = new Runnable() {
+        @Override
+        public void run() {
+            force();
+        }
+    };
+
+    private int current = 0;
+    private int sequence = 0;
+    private boolean forceScheduled = false;
+    private boolean closed = false;
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private long droppedCount = 0;
+
+    private FlurryFlutterMappedEventLog(int segmentSize, Handler background) {
+        this.segmentSize = segmentSize;
+        this.background = background;
+    }
+
+    /**
+     * Opens the log in the directory, and continues it if it exists.
+     */
+    static FlurryFlutterMappedEventLog open(File directory, int maxBytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the event log directory " + directory);
+        }
+
+        HandlerThread thread = new HandlerThread("FlurryFlutterEventLog");
+        thread.start();
+        FlurryFlutterMappedEventLog log = new FlurryFlutterMappedEventLog(
+                Math.max(MIN_MAX_BYTES, maxBytes) / SEGMENT_COUNT, new Handler(thread.getLooper()));
+        int latest = -1;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            MappedByteBuffer segment = map(new File(directory, SEGMENT_PREFIX + i), log.segmentSize);
+            int end = segment.getInt(OFFSET_END);
+            if (segment.getInt(0) != MAGIC || segment.getInt(4) != VERSION
+                    || end < HEADER_SIZE || end > log.segmentSize) {
+                reset(segment, 0);
+            }
+            log.segments[i] = segment;
+
+            int sequence = segment.getInt(OFFSET_SEQUENCE);
+            if (latest < 0 || sequence > log.sequence) {
+                latest = i;
+                log.sequence = sequence;
+            }
+        }
+        log.current = latest;
+        log.segments[latest].position(log.segments[latest].getInt(OFFSET_END));
+        return log;
+    }
+
+    @Override
+    public synchronized void export(long timestampMillis, String method, Object arguments) {
+        if (closed) {
+            return;
+        }
+
+        ByteBuffer record = scratch;
+        record.clear();
+        record.putInt(0).putLong(timestampMillis);
+        record = FlurryFlutterEventLogCodec.writeValue(record, method);
+        record = FlurryFlutterEventLogCodec.writeValue(record, arguments);
+        scratch = record;
+        int length = record.position();
+        if (length > segmentSize - HEADER_SIZE) {
+            droppedCount++;
+            return;
+        }
+        record.putInt(0, length - 4);
+        record.flip();
+
+        MappedByteBuffer segment = segments[current];
+        if (segment.remaining() < length) {
+            current = (current + 1) % SEGMENT_COUNT;
+            segment = segments[current];
+            reset(segment, ++sequence);
+        }
+        segment.put(record);
+        // Commit the record, readers stop at the end offset.
+        segment.putInt(OFFSET_END, segment.position());
+
+        if (!forceScheduled) {
+            forceScheduled = true;
+            background.postDelayed(forceTask, FORCE_DELAY_MILLIS);
+        }
+    }
+
+    synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Forces the log to storage on the background thread.
+     */
+    @Override
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+
+        background.removeCallbacks(forceTask);
+        forceScheduled = true;
+        background.post(forceTask);
+    }
+
+    /**
+     * Forces the log to storage, and stops writing it.
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            background.removeCallbacks(forceTask);
+        }
+
+        background.post(new Runnable() {
+            @Override
+            public void run() {
+                forceSegments();
+                background.getLooper().quit();
+            }
+        });
+    }
+
+    private void force() {
+        synchronized (this) {
+            forceScheduled = false;
+        }
+        forceSegments();
+    }
+
+    private void forceSegments() {
+        for (MappedByteBuffer segment : segments) {
+            try {
+                segment.force();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to write the event log.", e);
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(size);
+            // The mapping stays valid after the file is closed.
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static void reset(MappedByteBuffer segment, int sequence) {
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putInt(OFFSET_SEQUENCE, sequence);
+        segment.putInt(OFFSET_END, HEADER_SIZE);
+        segment.clear();
+        segment.position(HEADER_SIZE);
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Releases plugin-held state when the system is short on memory.
+ *
+ * The system trim levels are mapped to two plugin trim levels:
+ * <ul>
+ *     <li>{@link #LEVEL_SHRINK} while the app is running, or its UI just got hidden. Caches and
+ *     buffers drop their stale or least recently used half.</li>
+ *     <li>{@link #LEVEL_RELEASE} when the app is running critically low, or is in the background
+ *     and on the kill list. Caches and buffers are released completely.</li>
+ * </ul>
+ * The durable state, e.g. the event log and the idle queue, is flushed before anything is
+ * released. The summaries that end with the session, the duration histograms, the error
+ * windows and the route engagement, are left to the background.
+ */
+class FlurryFlutterMemoryTrimmer implements ComponentCallbacks2 {
+    private static final String TAG = "FlurryFlutterMemory";
+
+    static final int LEVEL_SHRINK = 1;
+    static final int LEVEL_RELEASE = 2;
+
+    /**
+     * Plugin-owned state that can be trimmed.
+     */
+    interface Trimmable {
+        /**
+         * Trims to the plugin trim level.
+         *
+         * @return the number of released entries.
+         */
+        int trim(int level);
+    }
+
+    private final FlurryFlutterLifecycle lifecycle;
+    private final Map<String, Trimmable> trimmables = new LinkedHashMap<>();
+
+    private Map<String, Object> lastReport;
+
+    FlurryFlutterMemoryTrimmer(FlurryFlutterLifecycle lifecycle) {
+        this.lifecycle = lifecycle;
+    }
+
+    synchronized void register(String name, Trimmable trimmable) {
+        trimmables.put(name, trimmable);
+    }
+
+    /**
+     * Returns what the last trim released, or null if it never trimmed.
+     */
+    synchronized Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        switch (level) {
+            case TRIM_MEMORY_RUNNING_MODERATE:
+            case TRIM_MEMORY_RUNNING_LOW:
+            case TRIM_MEMORY_UI_HIDDEN:
+                trim(LEVEL_SHRINK, level);
+                break;
+            case TRIM_MEMORY_RUNNING_CRITICAL:
+            case TRIM_MEMORY_BACKGROUND:
+            case TRIM_MEMORY_MODERATE:
+            case TRIM_MEMORY_COMPLETE:
+                trim(LEVEL_RELEASE, level);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim(LEVEL_RELEASE, TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    synchronized void trim(int level, int systemLevel) {
+        lifecycle.flush();
+
+        Map<String, Object> released = new HashMap<>();
+        int total = 0;
+        for (Map.Entry<String, Trimmable> entry : trimmables.entrySet()) {
+            try {
+                int count = entry.getValue().trim(level);
+                released.put(entry.getKey(), count);
+                total += count;
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to trim " + entry.getKey(), e);
+            }
+        }
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("level", level);
+        report.put("systemLevel", systemLevel);
+        report.put("uptimeMillis", SystemClock.elapsedRealtime());
+        report.put("released", released);
+        lastReport = report;
+
+        Log.i(TAG, "Trimmed plugin memory, level: " + level + ", system level: " + systemLevel
+                + ", released: " + total + " " + released);
+    }
+
+}
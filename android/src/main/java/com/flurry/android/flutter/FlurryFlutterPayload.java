@@ -0,0 +1,135 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reusable listener event payload, a map with a fixed set of keys.
+ *
+ * Payloads are taken from a {@link Pool} and return to it once the event stream has delivered
+ * or dropped them, so a steady flow of events doesn't allocate. Setting a value doesn't
+ * allocate; only the iteration by the Flutter codec does.
+ */
+final class FlurryFlutterPayload extends AbstractMap<String, Object> {
+
+    /**
+     * A pool of payloads with the same keys.
+     */
+    static final class Pool {
+        private final String[] keys;
+        private final ArrayDeque<FlurryFlutterPayload> free = new ArrayDeque<>();
+
+        Pool(String... keys) {
+            this.keys = keys;
+        }
+
+        synchronized FlurryFlutterPayload acquire() {
+            FlurryFlutterPayload payload = free.pollFirst();
+            return (payload != null) ? payload : new FlurryFlutterPayload(this, keys);
+        }
+
+        synchronized void release(FlurryFlutterPayload payload) {
+            Arrays.fill(payload.values, null);
+            free.addFirst(payload);
+        }
+    }
+
+    private final Pool pool;
+    private final String[] keys;
+    private final Object[] values;
+    private final Set<Map.Entry<String, Object>> entries = new AbstractSet<Map.Entry<String, Object>>() {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new Iterator<Map.Entry<String, Object>>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < keys.length;
+                }
+
+                @Override
+                public Map.Entry<String, Object> next() {
+                    if (index >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    int i = index++;
+                    return new SimpleImmutableEntry<>(keys[i], values[i]);
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+    };
+
+    private FlurryFlutterPayload(Pool pool, String[] keys) {
+        this.pool = pool;
+        this.keys = keys;
+        this.values = new Object[keys.length];
+    }
+
+    /**
+     * Sets the value of one of the payload keys.
+     */
+    FlurryFlutterPayload set(String key, Object value) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return this;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payload key: " + key);
+    }
+
+    /**
+     * Returns the payload to its pool, once it has been delivered or dropped.
+     */
+    void recycle() {
+        pool.release(this);
+    }
+
+    @Override
+    public Object get(Object key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return entries;
+    }
+
+}
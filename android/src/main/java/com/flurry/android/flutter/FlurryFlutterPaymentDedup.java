@@ -0,0 +1,289 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bounded filter of the payment transaction ids already logged, kept across launches.
+ *
+ * The filter remembers the 64-bit fingerprints of the last {@code capacity} transaction ids,
+ * in a ring persisted in a small memory-mapped file, and indexed by an open-addressing hash
+ * table in memory. Lookups and inserts are O(1), and the memory and file sizes are fixed by
+ * the capacity, however many transactions were logged. When the ring is full, the oldest
+ * transaction is forgotten.
+ *
+ * File layout: a header of magic, version, capacity, next slot and size ints, then the ring
+ * of fingerprint longs.
+ */
+class FlurryFlutterPaymentDedup implements FlurryFlutterLifecycle.Flushable {
+    private static final String TAG = "FlurryFlutterPaymentDedup";
+
+    static final int DEFAULT_CAPACITY = 4096;
+    static final int MAX_CAPACITY = 1 << 20;
+
+    static final int MAGIC = 0x46445550;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    private static final int OFFSET_CAPACITY = 8;
+    private static final int OFFSET_NEXT = 12;
+    private static final int OFFSET_SIZE = 16;
+
+    private final ByteBuffer ring;
+    private final int capacity;
+    // Open-addressing index of the fingerprints in the ring, 0 is an empty slot.
+    private final long[] index;
+    private final int mask;
+
+    private int next;
+    private int size;
+    private boolean dirty = false;
+    private long duplicateCount = 0;
+
+    private FlurryFlutterPaymentDedup(ByteBuffer ring, int capacity) {
+        this.ring = ring;
+        this.capacity = capacity;
+        int slots = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.index = new long[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Opens the filter from the file, keeping the most recent transactions of a previous
+     * filter. Falls back to a filter in memory only if the file cannot be mapped.
+     */
+    static FlurryFlutterPaymentDedup open(File file, int capacity) {
+        capacity = Math.max(1, Math.min(capacity, MAX_CAPACITY));
+        long[] previous = readPrevious(file);
+        ByteBuffer ring;
+        try {
+            ring = map(file, HEADER_SIZE + capacity * 8);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to map the payment dedup file, transactions are kept in memory.", e);
+            ring = ByteBuffer.allocate(HEADER_SIZE + capacity * 8);
+        }
+
+        FlurryFlutterPaymentDedup dedup = new FlurryFlutterPaymentDedup(ring, capacity);
+        dedup.reset();
+        for (int i = Math.max(0, previous.length - capacity); i < previous.length; i++) {
+            if (previous[i] != 0) {
+                dedup.insert(previous[i]);
+            }
+        }
+        return dedup;
+    }
+
+    /**
+     * Returns true if the transaction was already logged, and counts it as a duplicate.
+     * Payments without a transaction id are never duplicates.
+     */
+    synchronized boolean contains(String transactionId) {
+        if (transactionId == null || transactionId.isEmpty()) {
+            return false;
+        }
+
+        if (indexed(fingerprint(transactionId))) {
+            duplicateCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers the transaction, once the SDK recorded its payment. A payment that failed is
+     * not remembered, so that its retry is logged.
+     */
+    synchronized void remember(String transactionId) {
+        if (transactionId == null || transactionId.isEmpty()) {
+            return;
+        }
+
+        long fingerprint = fingerprint(transactionId);
+        if (!indexed(fingerprint)) {
+            insert(fingerprint);
+        }
+    }
+
+    synchronized Map<String, Object> getCounts() {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("size", size);
+        counts.put("capacity", capacity);
+        counts.put("duplicates", duplicateCount);
+        return counts;
+    }
+
+    /**
+     * Forces the ring to storage if it changed.
+     */
+    @Override
+    public void flush() {
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+        }
+        if (ring instanceof MappedByteBuffer) {
+            try {
+                ((MappedByteBuffer) ring).force();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to write the payment dedup file.", e);
+            }
+        }
+    }
+
+    private boolean indexed(long fingerprint) {
+        for (int slot = slotOf(fingerprint); index[slot] != 0; slot = (slot + 1) & mask) {
+            if (index[slot] == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(long fingerprint) {
+        if (size == capacity) {
+            remove(ring.getLong(HEADER_SIZE + next * 8));
+        } else {
+            size++;
+        }
+
+        int slot = slotOf(fingerprint);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = fingerprint;
+
+        ring.putLong(HEADER_SIZE + next * 8, fingerprint);
+        next = (next + 1) % capacity;
+        ring.putInt(OFFSET_NEXT, next);
+        ring.putInt(OFFSET_SIZE, size);
+        dirty = true;
+    }
+
+    /**
+     * Removes the fingerprint from the index, shifting back the entries of its probe chain.
+     */
+    private void remove(long fingerprint) {
+        int slot = slotOf(fingerprint);
+        while (index[slot] != fingerprint) {
+            if (index[slot] == 0) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int hole = slot;
+        for (int i = (hole + 1) & mask; index[i] != 0; i = (i + 1) & mask) {
+            int home = slotOf(index[i]);
+            // Move the entry into the hole if its home slot is not between the hole and it.
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                index[hole] = index[i];
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private int slotOf(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    private void reset() {
+        ring.putInt(0, MAGIC);
+        ring.putInt(4, VERSION);
+        ring.putInt(OFFSET_CAPACITY, capacity);
+        ring.putInt(OFFSET_NEXT, 0);
+        ring.putInt(OFFSET_SIZE, 0);
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash of the transaction id, never 0.
+     */
+    static long fingerprint(String transactionId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < transactionId.length(); i++) {
+            char c = transactionId.charAt(i);
+            hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+            hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        return (hash != 0) ? hash : 1;
+    }
+
+    /**
+     * Returns the fingerprints of the file, from the oldest to the most recent.
+     */
+    private static long[] readPrevious(File file) {
+        if (!file.isFile()) {
+            return new long[0];
+        }
+
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                if (raf.length() < HEADER_SIZE || raf.readInt() != MAGIC || raf.readInt() != VERSION) {
+                    return new long[0];
+                }
+                int capacity = raf.readInt();
+                int next = raf.readInt();
+                int size = raf.readInt();
+                if (capacity <= 0 || next < 0 || next >= capacity || size < 0 || size > capacity
+                        || raf.length() < HEADER_SIZE + (long) capacity * 8) {
+                    return new long[0];
+                }
+
+                long[] ring = new long[capacity];
+                for (int i = 0; i < capacity; i++) {
+                    ring[i] = raf.readLong();
+                }
+                long[] previous = new long[size];
+                for (int i = 0; i < size; i++) {
+                    previous[i] = ring[(next - size + i + capacity) % capacity];
+                }
+                return previous;
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to read the payment dedup file.", e);
+            return new long[0];
+        }
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(size);
+            // The mapping stays valid after the file is closed.
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            raf.close();
+        }
+    }
+
+}
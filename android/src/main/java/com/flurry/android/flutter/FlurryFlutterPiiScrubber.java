@@ -0,0 +1,339 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Built-in interceptor masking personal data in the event parameter values: email addresses,
+ * phone numbers and card numbers.
+ *
+ * Each value is scanned once, left to right, by a hand-written recognizer of the three
+ * patterns; the lookahead of a candidate match never rescans a character more than once, so
+ * the scan is linear in the value length. Letters and digits of a match are replaced with
+ * '*', punctuation is kept, e.g. "***-***-****". The matches are:
+ * <ul>
+ *     <li>emails: a local part, '@', and a domain of at least two labels ending in a
+ *     2-letter or longer top-level domain.</li>
+ *     <li>phone numbers: 7 to 15 digits with a leading '+', or with separators
+ *     (space, '-', '(', ')').</li>
+ *     <li>card numbers: 13 to 19 digits, with optional separators, passing the Luhn check.</li>
+ * </ul>
+ * Digit runs must stand alone, not within a word, and a '.' ends them. Plain digit runs that
+ * are not card numbers, e.g. ids and timestamps, are kept, as are amounts, versions and IP
+ * addresses.
+ *
+ * Short values are cached, event parameters repeat a lot. Events can be exempted by id.
+ */
+class FlurryFlutterPiiScrubber implements FlurryFlutterEventInterceptor, FlurryFlutterMemoryTrimmer.Trimmable {
+    static final int CACHE_SIZE = 1024;
+    static final int MAX_CACHED_LENGTH = 128;
+
+    private static final char MASK = '*';
+
+    private final LinkedHashMap<String, String> cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private volatile Set<String> exemptEventIds = Collections.emptySet();
+
+    void setExemptEventIds(Collection<String> eventIds) {
+        exemptEventIds = (eventIds == null || eventIds.isEmpty())
+                ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(new HashSet<>(eventIds));
+    }
+
+    @Override
+    public boolean intercept(Event event) {
+        if (exemptEventIds.contains(event.getId())) {
+            return true;
+        }
+
+        if (event.getType() == Event.Type.STANDARD_EVENT) {
+            if (event.getStandardParams() != null) {
+                for (Map.Entry<Object, String> entry : event.getStandardParams().getParams().entrySet()) {
+                    String value = entry.getValue();
+                    String scrubbed = scrub(value);
+                    if (scrubbed != value) {
+                        entry.setValue(scrubbed);
+                    }
+                }
+            }
+            return true;
+        }
+
+        Map<String, String> parameters = event.getParameters();
+        if (parameters.isEmpty()) {
+            return true;
+        }
+        // Collect the changes first, the parameters view is replaced on first write.
+        Map<String, String> scrubbedValues = null;
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            String value = entry.getValue();
+            String scrubbed = scrub(value);
+            if (scrubbed != value) {
+                if (scrubbedValues == null) {
+                    scrubbedValues = new LinkedHashMap<>();
+                }
+                scrubbedValues.put(entry.getKey(), scrubbed);
+            }
+        }
+        if (scrubbedValues != null) {
+            for (Map.Entry<String, String> entry : scrubbedValues.entrySet()) {
+                event.putParameter(entry.getKey(), entry.getValue());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value with its personal data masked, the same instance if there is none.
+     */
+    String scrub(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        if (value.length() > MAX_CACHED_LENGTH) {
+            return mask(value);
+        }
+
+        synchronized (cache) {
+            String scrubbed = cache.get(value);
+            if (scrubbed != null) {
+                return scrubbed;
+            }
+        }
+        String scrubbed = mask(value);
+        synchronized (cache) {
+            cache.put(value, scrubbed);
+        }
+        return scrubbed;
+    }
+
+    @Override
+    public int trim(int level) {
+        synchronized (cache) {
+            int size = cache.size();
+            int remove = (level >= FlurryFlutterMemoryTrimmer.LEVEL_RELEASE) ? size : size / 2;
+            Iterator<String> iterator = cache.keySet().iterator();
+            for (int i = 0; i < remove && iterator.hasNext(); i++) {
+                iterator.next();
+                iterator.remove();
+            }
+            return remove;
+        }
+    }
+
+    static String mask(String value) {
+        int length = value.length();
+        char[] masked = null;
+        // Start of the current run of email local part characters, or -1.
+        int localStart = -1;
+        // End of the last digit run scanned, digit runs only start past it.
+        int digitRunEnd = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+
+            if (i >= digitRunEnd && isDigitRunStart(value, i)) {
+                int end = digitRunEnd(value, i);
+                if (end > 0) {
+                    masked = maskRange(value, masked, i, end);
+                    localStart = -1;
+                    digitRunEnd = end;
+                    i = end - 1;
+                    continue;
+                }
+                digitRunEnd = -end;
+            }
+
+            if (c == '@' && localStart >= 0) {
+                int end = domainEnd(value, i + 1);
+                if (end > 0) {
+                    masked = maskRange(value, masked, localStart, end);
+                    localStart = -1;
+                    digitRunEnd = Math.max(digitRunEnd, end);
+                    i = end - 1;
+                    continue;
+                }
+            }
+
+            if (isLocalChar(c)) {
+                if (localStart < 0) {
+                    localStart = i;
+                }
+            } else {
+                localStart = -1;
+            }
+        }
+        return (masked != null) ? new String(masked) : value;
+    }
+
+    private static boolean isDigitRunStart(String value, int i) {
+        char c = value.charAt(i);
+        if (i > 0 && Character.isLetterOrDigit(value.charAt(i - 1))) {
+            return false;
+        }
+        if (isDigit(c)) {
+            return true;
+        }
+        return (c == '+' || c == '(') && i + 1 < value.length() && isDigit(value.charAt(i + 1));
+    }
+
+    /**
+     * Scans the digit run starting at i, returns its end if it is a phone or card number,
+     * otherwise minus the end of the scan.
+     */
+    private static int digitRunEnd(String value, int start) {
+        int length = value.length();
+        boolean plus = value.charAt(start) == '+';
+        boolean separated = false;
+        int digits = 0;
+        int separators = 0;
+        // Digits of the first two groups, to tell dates apart.
+        int group = 0;
+        int firstGroup = 0;
+        int secondGroup = 0;
+        int end = start;
+        int i = start;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                if (separators > 0 && digits > 0) {
+                    group++;
+                }
+                if (group == 0) {
+                    firstGroup++;
+                } else if (group == 1) {
+                    secondGroup++;
+                }
+                digits++;
+                separators = 0;
+                end = i + 1;
+            } else if (isSeparator(c) || (c == '+' && i == start)) {
+                if (++separators > 2 || digits > 19) {
+                    break;
+                }
+                separated |= c != '+' && c != '(' && digits > 0;
+            } else {
+                break;
+            }
+        }
+
+        if (end < length && Character.isLetterOrDigit(value.charAt(end)) || digits > 19) {
+            return -Math.max(i, start + 1);
+        }
+        boolean date = firstGroup == 4 && secondGroup <= 2;
+        if (digits >= 7 && digits <= 15 && (plus || separated) && !date) {
+            return end;
+        }
+        if (digits >= 13 && isLuhnValid(value, start, end)) {
+            return end;
+        }
+        return -Math.max(i, start + 1);
+    }
+
+    private static boolean isLuhnValid(String value, int start, int end) {
+        int sum = 0;
+        boolean twice = false;
+        for (int i = end - 1; i >= start; i--) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                continue;
+            }
+            int digit = c - '0';
+            if (twice) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            twice = !twice;
+        }
+        return sum % 10 == 0;
+    }
+
+    /**
+     * Returns the end of the email domain starting at i, or -1.
+     */
+    private static int domainEnd(String value, int start) {
+        int length = value.length();
+        int labels = 0;
+        int labelStart = start;
+        boolean alphaLabel = true;
+        int end = -1;
+        for (int i = start; i <= length; i++) {
+            char c = (i < length) ? value.charAt(i) : 0;
+            if (isDigit(c) || c == '-' || isAsciiLetter(c)) {
+                alphaLabel &= isAsciiLetter(c);
+                continue;
+            }
+            if (i == labelStart) {
+                break;
+            }
+            labels++;
+            if (labels >= 2 && alphaLabel && i - labelStart >= 2) {
+                end = i;
+            }
+            if (c != '.') {
+                break;
+            }
+            labelStart = i + 1;
+            alphaLabel = true;
+        }
+        return end;
+    }
+
+    private static char[] maskRange(String value, char[] masked, int start, int end) {
+        if (masked == null) {
+            masked = value.toCharArray();
+        }
+        for (int i = start; i < end; i++) {
+            if (Character.isLetterOrDigit(masked[i])) {
+                masked[i] = MASK;
+            }
+        }
+        return masked;
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isAsciiLetter(c) || isDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '-' || c == '(' || c == ')';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+}
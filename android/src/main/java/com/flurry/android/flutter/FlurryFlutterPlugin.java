@@ -19,10 +19,10 @@ package com.flurry.android.flutter;
 import android.content.Context;
 import android.os.Handler;
 import android.os.HandlerThread;
-import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
 
 import com.flurry.android.FlurryAgent;
 import com.flurry.android.FlurryConfig;
@@ -37,6 +37,11 @@ import com.flurry.android.marketing.FlurryMarketingOptions;
 import com.flurry.android.marketing.messaging.FlurryMessagingListener;
 import com.flurry.android.marketing.messaging.notification.FlurryMessage;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -57,14 +62,128 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
     private static final String ORIGIN_NAME = "flutter-flurry-sdk";
     private static final String ORIGIN_VERSION = "3.3.0";
 
+    private static final String NO_REPLY_SUFFIX = "NoReply";
+    private static final String PAYMENT_EVENT_ID = "Flurry.Payment";
+
     private Context context;
 
     private static FlurryAgent.Builder builder;
+    private static final FlurryFlutterEventStream sBudgetEventStream = new FlurryFlutterEventStream("budget");
+    // Traced right around the Flurry SDK, the plugin work in front of it is not SDK time.
+    private static final FlurryFlutterExportingSdk sExportingSdk = new FlurryFlutterExportingSdk(
+            new FlurryFlutterTracedSdk(new FlurryFlutterAgentSdk()));
+    private static final FlurryFlutterDataBudget sDataBudget = new FlurryFlutterDataBudget(sExportingSdk,
+            new FlurryFlutterDataBudget.Notifier() {
+                @Override
+                public void onBudgetExceeded(String eventClass, long usedBytes, long dailyBytes) {
+                    Map<String, Object> event = new HashMap<>();
+                    event.put("eventClass", eventClass);
+                    event.put("usedBytes", usedBytes);
+                    event.put("dailyBytes", dailyBytes);
+                    sBudgetEventStream.send(event);
+                }
+            });
+    private static final FlurryFlutterInterceptorChain sInterceptors = new FlurryFlutterInterceptorChain(sDataBudget);
+    private static final FlurryFlutterSdk sSdk = sInterceptors;
+    private static final FlurryFlutterPiiScrubber sPiiScrubber = new FlurryFlutterPiiScrubber();
     private static FlurryPerformance.ResourceLogger flurryResourceLogger;
     private static FlutterFlurryConfigListener sFlutterFlurryConfigListener;
     private static FlutterFlurryPublisherListener sFlutterFlurryPublisherListener;
+    private static final FlurryFlutterEventStream sConfigEventStream = new FlurryFlutterEventStream("config");
+    private static final FlurryFlutterEventStream sMessagingEventStream = new FlurryFlutterEventStream("messaging");
+    private static final FlurryFlutterEventStream sPublisherEventStream = new FlurryFlutterEventStream("publisher");
+    private static volatile boolean sReportFetchDecisions = false;
+    private static final FlurryFlutterConfigFetcher sConfigFetcher = new FlurryFlutterConfigFetcher(
+            new FlurryFlutterConfigFetcher.Listener() {
+                @Override
+                public void onDecision(String decision, long delayMillis) {
+                    if (sReportFetchDecisions) {
+                        sConfigEventStream.send(FlutterFlurryConfigListener.decisionEvent(decision, delayMillis));
+                    }
+                }
+            });
+    private static final FlurryFlutterPublisherFetcher sPublisherFetcher = new FlurryFlutterPublisherFetcher(
+            new FlurryFlutterPublisherFetcher.Listener() {
+                @Override
+                public void onFetched(Map<String, String> data) {
+                    sPublisherEventStream.send(data);
+                }
+            });
+    private static final FlurryFlutterConfigCache sConfigCache = new FlurryFlutterConfigCache(
+            new FlurryFlutterConfigCache.Source() {
+                @Override
+                public String getString(String key) {
+                    return readConfigString(key, null);
+                }
+            });
     private static boolean messagingInitialized = false;
 
+    private static final FlurryFlutterStartupTrace sStartupTrace = new FlurryFlutterStartupTrace();
+    private static final FlurryFlutterStateCache sStateCache = new FlurryFlutterStateCache();
+    private static final FlurryFlutterEventCounters sEventCounters = new FlurryFlutterEventCounters();
+    private static final FlurryFlutterEventPolicy sEventPolicy = new FlurryFlutterEventPolicy();
+    private static final FlurryFlutterDefaultParameters sDefaultParameters = new FlurryFlutterDefaultParameters();
+    private static final FlurryFlutterErrorFilter sErrorFilter = new FlurryFlutterErrorFilter(
+            new FlurryFlutterErrorFilter.Reporter() {
+                @Override
+                public void report(String errorId, String message, String errorClass, Map<String, String> parameters) {
+                    if (parameters == null) {
+                        sSdk.onError(errorId, message, errorClass);
+                    } else {
+                        sSdk.onError(errorId, message, errorClass, parameters);
+                    }
+                }
+            });
+    private static FlurryFlutterLifecycle.PeriodicTask sErrorFlushTask;
+    private static final FlurryFlutterDurationHistograms sDurationHistograms = new FlurryFlutterDurationHistograms(
+            new FlurryFlutterDurationHistograms.Reporter() {
+                @Override
+                public void report(String eventId, Map<String, String> parameters) {
+                    recordStatus(eventId, sSdk.logEvent(eventId, sDefaultParameters.merge(parameters)));
+                }
+            });
+    private static FlurryFlutterLifecycle.PeriodicTask sDurationReportTask;
+
+    private static final FlurryFlutterLifecycle sLifecycle = new FlurryFlutterLifecycle();
+    private static final FlurryFlutterEngagement sEngagement = new FlurryFlutterEngagement(sLifecycle,
+            new FlurryFlutterEngagement.Reporter() {
+                @Override
+                public void report(String eventId, Map<String, String> parameters) {
+                    recordStatus(eventId, sSdk.logEvent(eventId, sDefaultParameters.merge(parameters)));
+                }
+            });
+    private static final FlurryFlutterIdleExecutor sIdleExecutor = new FlurryFlutterIdleExecutor();
+    private static final FlurryFlutterMemoryTrimmer sMemoryTrimmer = new FlurryFlutterMemoryTrimmer(sLifecycle);
+    private static boolean sMemoryTrimmerRegistered = false;
+
+    private static final Object sExporterLock = new Object();
+    private static FlurryFlutterMappedEventLog sEventLog;
+    private static volatile FlurryFlutterCallCapture sCallCapture;
+
+    private static final Object sPaymentDedupLock = new Object();
+    private static boolean sPaymentDedupEnabled = true;
+    private static int sPaymentDedupCapacity = FlurryFlutterPaymentDedup.DEFAULT_CAPACITY;
+    private static FlurryFlutterPaymentDedup sPaymentDedup;
+
+    private static volatile FlurryFlutterWarmStart sWarmStart;
+
+    static {
+        sLifecycle.addPausable(sErrorFilter);
+        sLifecycle.addPausable(sDurationHistograms);
+        sLifecycle.addFlushable(sIdleExecutor);
+        sLifecycle.addPausable(sEngagement);
+        sLifecycle.addResumable(sEngagement);
+
+        sMemoryTrimmer.register("errorFingerprints", sErrorFilter);
+        sMemoryTrimmer.register("durationHistograms", sDurationHistograms);
+        sMemoryTrimmer.register("configEvents", sConfigEventStream);
+        sMemoryTrimmer.register("messagingEvents", sMessagingEventStream);
+        sMemoryTrimmer.register("publisherEvents", sPublisherEventStream);
+        sMemoryTrimmer.register("budgetEvents", sBudgetEventStream);
+        sMemoryTrimmer.register("piiScrubCache", sPiiScrubber);
+        sMemoryTrimmer.register("configValues", sConfigCache);
+    }
+
     /**
      * The MethodChannel/EventChannel that will the communication between Flutter and native Android
      *
@@ -75,29 +194,43 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
     private EventChannel configEventChannel;
     private EventChannel messagingEventChannel;
     private EventChannel publisherEventChannel;
+    private EventChannel budgetEventChannel;
 
     @Override
     public void onAttachedToEngine(@NonNull FlutterPluginBinding flutterPluginBinding) {
+        boolean phaseTraced = sStartupTrace.begin(FlurryFlutterStartupTrace.PHASE_ATTACH);
+        try {
+            attachToEngine(flutterPluginBinding);
+        } finally {
+            sStartupTrace.end(FlurryFlutterStartupTrace.PHASE_ATTACH, phaseTraced);
+        }
+    }
+
+    private void attachToEngine(@NonNull FlutterPluginBinding flutterPluginBinding) {
         context = flutterPluginBinding.getApplicationContext();
+        if (!sMemoryTrimmerRegistered) {
+            context.registerComponentCallbacks(sMemoryTrimmer);
+            sMemoryTrimmerRegistered = true;
+        }
+        if (sWarmStart == null) {
+            // Read before Dart runs, so that its first reads get the last-known values.
+            FlurryFlutterWarmStart warmStart = FlurryFlutterWarmStart.open(
+                    new File(context.getFilesDir(), "flurry_flutter_warm_start"));
+            sLifecycle.addFlushable(warmStart);
+            sWarmStart = warmStart;
+        }
 
         channel = new MethodChannel(flutterPluginBinding.getBinaryMessenger(), "flurry_flutter_plugin");
         channel.setMethodCallHandler(this);
 
         // Set up Flurry Config event channel
         configEventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(),"flurry_flutter_plugin_event_config");
-        configEventChannel.setStreamHandler(new EventChannel.StreamHandler() {
-            @Override
-            public void onListen(Object listener, EventChannel.EventSink eventSink) {
-                if (sFlutterFlurryConfigListener == null) {
-                    sFlutterFlurryConfigListener = new FlutterFlurryConfigListener(eventSink);
-                    FlurryConfig.getInstance().registerListener(sFlutterFlurryConfigListener);
-                }
-            }
-
-            @Override
-            public void onCancel(Object listener) {
-            }
-        });
+        configEventChannel.setStreamHandler(sConfigEventStream);
+        if (sFlutterFlurryConfigListener == null) {
+            // Register early, events are buffered until Dart subscribes.
+            sFlutterFlurryConfigListener = new FlutterFlurryConfigListener();
+            FlurryConfig.getInstance().registerListener(sFlutterFlurryConfigListener);
+        }
 
         // Set up Flurry Push (Messaging) event channel
         messagingEventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(),"flurry_flutter_plugin_event_messaging");
@@ -109,24 +242,21 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
 
             @Override
             public void onCancel(Object listener) {
+                FlutterFlurryMessagingListener.setEventSink(null);
             }
         });
 
         // Set up Flurry Publisher Segmentation event channel
         publisherEventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(),"flurry_flutter_plugin_event_ps");
-        publisherEventChannel.setStreamHandler(new EventChannel.StreamHandler() {
-            @Override
-            public void onListen(Object listener, EventChannel.EventSink eventSink) {
-                if (sFlutterFlurryPublisherListener == null) {
-                    sFlutterFlurryPublisherListener = new FlutterFlurryPublisherListener(eventSink);
-                    FlurryPublisherSegmentation.registerFetchListener(sFlutterFlurryPublisherListener);
-                }
-            }
+        publisherEventChannel.setStreamHandler(sPublisherEventStream);
+        if (sFlutterFlurryPublisherListener == null) {
+            sFlutterFlurryPublisherListener = new FlutterFlurryPublisherListener();
+            FlurryPublisherSegmentation.registerFetchListener(sFlutterFlurryPublisherListener);
+        }
 
-            @Override
-            public void onCancel(Object listener) {
-            }
-        });
+        // Set up data budget event channel
+        budgetEventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(),"flurry_flutter_plugin_event_budget");
+        budgetEventChannel.setStreamHandler(sBudgetEventStream);
     }
 
     @Override
@@ -135,26 +265,69 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
         configEventChannel.setStreamHandler(null);
         messagingEventChannel.setStreamHandler(null);
         publisherEventChannel.setStreamHandler(null);
+        budgetEventChannel.setStreamHandler(null);
+        sConfigEventStream.detach();
+        sMessagingEventStream.detach();
+        sPublisherEventStream.detach();
+        sBudgetEventStream.detach();
     }
 
     @Override
     public void onDetachedFromActivity() {
+        // The activity is going away for good, don't keep work buffered in case the process dies.
+        sLifecycle.detach();
     }
 
     @Override
     public void onReattachedToActivityForConfigChanges(@NonNull ActivityPluginBinding binding) {
+        sLifecycle.attach(binding.getActivity());
     }
 
     @Override
     public void onAttachedToActivity(@NonNull ActivityPluginBinding binding) {
+        sLifecycle.attach(binding.getActivity());
     }
 
     @Override
     public void onDetachedFromActivityForConfigChanges() {
+        // The activity is recreated, keep the buffered work and the periodic tasks as they are.
     }
 
     @Override
     public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
+        FlurryFlutterCallCapture capture = sCallCapture;
+        if (capture != null) {
+            captureCall(capture, call);
+        }
+
+        boolean traced = FlurryFlutterTracer.beginCallSection(call.method);
+        try {
+            String startupPhase = sStartupTrace.phaseOf(call.method);
+            if (startupPhase == null) {
+                handleMethodCall(call, result);
+            } else {
+                boolean phaseTraced = sStartupTrace.begin(startupPhase);
+                try {
+                    handleMethodCall(call, result);
+                } finally {
+                    sStartupTrace.end(startupPhase, phaseTraced);
+                }
+            }
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    private static void captureCall(FlurryFlutterCallCapture capture, MethodCall call) {
+        try {
+            capture.record(call.method, call.arguments);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to capture " + call.method + ", stopping the capture.", e);
+            stopCallCapture();
+        }
+    }
+
+    private void handleMethodCall(@NonNull MethodCall call, @NonNull Result result) {
         switch(call.method) {
             case "initializeFlurryBuilder":
                 initializeFlurryBuilder();
@@ -214,28 +387,58 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
             case "setContinueSessionMillis":
                 sessionMillisStr = call.argument("sessionMillisStr");
                 long millis = Long.parseLong(sessionMillisStr);
-                FlurryAgent.setContinueSessionMillis(millis);
+                boolean sessionTraced = FlurryFlutterTracer.beginSdkSection("setContinueSessionMillis");
+                try {
+                    FlurryAgent.setContinueSessionMillis(millis);
+                } finally {
+                    FlurryFlutterTracer.endSection(sessionTraced);
+                }
                 break;
             case "setCrashReporting":
                 crashReporting = call.<Boolean>argument("crashReporting");
-                FlurryAgent.setCaptureUncaughtExceptions(crashReporting);
+                boolean crashTraced = FlurryFlutterTracer.beginSdkSection("setCaptureUncaughtExceptions");
+                try {
+                    FlurryAgent.setCaptureUncaughtExceptions(crashReporting);
+                } finally {
+                    FlurryFlutterTracer.endSection(crashTraced);
+                }
                 break;
             case "setIncludeBackgroundSessionsInMetrics":
                 includeBackgroundSessionsInMetrics = call.<Boolean>argument("includeBackgroundSessionsInMetrics");
-                FlurryAgent.setIncludeBackgroundSessionsInMetrics(includeBackgroundSessionsInMetrics);
+                boolean backgroundTraced = FlurryFlutterTracer.beginSdkSection("setIncludeBackgroundSessionsInMetrics");
+                try {
+                    FlurryAgent.setIncludeBackgroundSessionsInMetrics(includeBackgroundSessionsInMetrics);
+                } finally {
+                    FlurryFlutterTracer.endSection(backgroundTraced);
+                }
                 break;
             case "setLogEnabled":
                 enableLog = call.<Boolean>argument("enableLog");
-                FlurryAgent.setLogEnabled(enableLog);
+                boolean logTraced = FlurryFlutterTracer.beginSdkSection("setLogEnabled");
+                try {
+                    FlurryAgent.setLogEnabled(enableLog);
+                } finally {
+                    FlurryFlutterTracer.endSection(logTraced);
+                }
                 break;
             case "setLogLevel":
                 logLevelStr = call.argument("logLevelStr");
                 int logLevel = Integer.parseInt(logLevelStr);
-                FlurryAgent.setLogLevel(logLevel);
+                boolean logLevelTraced = FlurryFlutterTracer.beginSdkSection("setLogLevel");
+                try {
+                    FlurryAgent.setLogLevel(logLevel);
+                } finally {
+                    FlurryFlutterTracer.endSection(logLevelTraced);
+                }
                 break;
             case "setSslPinningEnabled":
                 sslPinningEnabled = call.<Boolean>argument("sslPinningEnabled");
-                FlurryAgent.setSslPinningEnabled(sslPinningEnabled);
+                boolean sslTraced = FlurryFlutterTracer.beginSdkSection("setSslPinningEnabled");
+                try {
+                    FlurryAgent.setSslPinningEnabled(sslPinningEnabled);
+                } finally {
+                    FlurryFlutterTracer.endSection(sslTraced);
+                }
                 break;
             case "addUserPropertyValue":
                 String propertyName = call.argument("propertyName");
@@ -334,7 +537,7 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
             case "setGppConsent":
                 gppString = call.argument("gppString");
                 gppSectionIds = call.argument("gppSectionIds");
-                FlurryAgent.setGppConsent(gppString, new HashSet<>(gppSectionIds));
+                setGppConsent(gppString, gppSectionIds);
                 break;
             case "setDataSaleOptOut":
                 isOptOut = call.<Boolean>argument("isOptOut");
@@ -361,42 +564,52 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
                 String sessionId = getSessionId();
                 result.success(sessionId);
                 break;
+            case "setDefaultParameters":
+                parameters = call.argument("parameters");
+                setDefaultParameters(parameters);
+                break;
             case "logEvent":
+            case "logEventNoReply":
                 String eventId = call.argument("eventId");
                 int status = logEvent(eventId);
-                result.success(status);
+                replyStatus(call, result, status);
                 break;
             case "logEventWithParameters":
+            case "logEventWithParametersNoReply":
                 eventId = call.argument("eventId");
                 parameters = call.argument("parameters");
                 status = logEventWithParameters(eventId, parameters);
-                result.success(status);
+                replyStatus(call, result, status);
                 break;
             case "logTimedEvent":
+            case "logTimedEventNoReply":
                 eventId = call.argument("eventId");
                 boolean timed = call.<Boolean>argument("timed");
                 status = logTimedEvent(eventId, timed);
-                result.success(status);
+                replyStatus(call, result, status);
                 break;
             case "logTimedEventWithParameters":
+            case "logTimedEventWithParametersNoReply":
                 eventId = call.argument("eventId");
                 parameters = call.argument("parameters");
                 timed = call.<Boolean>argument("timed");
                 status = logTimedEventWithParameters(eventId, parameters, timed);
-                result.success(status);
+                replyStatus(call, result, status);
                 break;
             case "logTimedEventId":
+            case "logTimedEventIdNoReply":
                 eventId = call.argument("eventId");
                 String timedId = call.<String>argument("timedId");
                 status = logTimedEventId(eventId, timedId);
-                result.success(status);
+                replyStatus(call, result, status);
                 break;
             case "logTimedEventIdWithParameters":
+            case "logTimedEventIdWithParametersNoReply":
                 eventId = call.argument("eventId");
                 parameters = call.argument("parameters");
                 timedId = call.<String>argument("timedId");
                 status = logTimedEventIdWithParameters(eventId, parameters, timedId);
-                result.success(status);
+                replyStatus(call, result, status);
                 break;
             case "endTimedEvent":
                 eventId = call.argument("eventId");
@@ -419,11 +632,12 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
                 endTimedEventIdWithParameters(eventId, parameters, timedId);
                 break;
             case "logStandardEvent":
+            case "logStandardEventNoReply":
                 int standardId = call.<Integer>argument("id");
                 Map<Integer, String> flurryParam = call.<Map<Integer, String>>argument("flurryParam");
                 Map<String, String> userParam = call.<Map<String, String>>argument("userParam");
                 status = logStandardEvent(standardId, flurryParam, userParam);
-                result.success(status);
+                replyStatus(call, result, status);
                 break;
             case "onError":
                 String errorId = call.argument("errorId");
@@ -438,11 +652,58 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
                 parameters = call.argument("parameters");
                 onErrorWithParameters(errorId, message, errorClass, parameters);
                 break;
+            case "setErrorDeduplication":
+                boolean deduplicate = call.<Boolean>argument("enabled");
+                int windowMillis = call.<Integer>argument("windowMillis");
+                int maxFingerprints = call.<Integer>argument("maxFingerprints");
+                setErrorDeduplication(deduplicate, windowMillis, maxFingerprints);
+                break;
+            case "getSuppressedErrorCount":
+                result.success(sErrorFilter.getSuppressedCount());
+                break;
+            case "setTimedEventMeasurement":
+                eventId = call.argument("eventId");
+                boolean measured = call.<Boolean>argument("enabled");
+                setTimedEventMeasurement(eventId, measured);
+                break;
+            case "setTimedEventSummaryInterval":
+                int intervalMillis = call.<Integer>argument("intervalMillis");
+                setTimedEventSummaryInterval(intervalMillis);
+                break;
+            case "setIdleScheduling":
+                boolean idleScheduling = call.<Boolean>argument("enabled");
+                int maxDeferralMillis = call.<Integer>argument("maxDeferralMillis");
+                setIdleScheduling(idleScheduling, maxDeferralMillis);
+                break;
+            case "getIdleSchedulingCounts":
+                result.success(sIdleExecutor.getCounts());
+                break;
+            case "setLocalEventLog":
+                boolean eventLog = call.<Boolean>argument("enabled");
+                int maxBytes = call.<Integer>argument("maxBytes");
+                setLocalEventLog(eventLog, maxBytes);
+                break;
+            case "getLocalEventLog":
+                result.success(getLocalEventLog());
+                break;
+            case "startCallCapture":
+                startCallCapture();
+                break;
+            case "stopCallCapture":
+                File captureFile = stopCallCapture();
+                result.success((captureFile != null) ? captureFile.getAbsolutePath() : null);
+                break;
+            case "setEventBufferOptions":
+                int capacity = call.<Integer>argument("capacity");
+                int ttlMillis = call.<Integer>argument("ttlMillis");
+                setEventBufferOptions(capacity, ttlMillis);
+                break;
             case "logBreadcrumb":
                 String crashBreadcrumb = call.argument("crashBreadcrumb");
                 logBreadcrumb(crashBreadcrumb);
                 break;
             case "logPayment":
+            case "logPaymentNoReply":
                 String productName = call.argument("productName");
                 String productId = call.argument("productId");
                 int quantity = call.<Integer>argument("quantity");
@@ -451,23 +712,93 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
                 String transactionId = call.argument("transactionId");
                 parameters = call.argument("parameters");
                 status = logPayment(productName, productId, quantity, price, currency, transactionId, parameters);
-                result.success(status);
+                replyStatus(call, result, status);
+                break;
+            case "getEventRecordCounts":
+                result.success(sEventCounters.snapshot());
+                break;
+            case "getEventCount":
+                eventId = call.argument("eventId");
+                boolean onlyRecorded = call.<Boolean>argument("onlyRecorded");
+                result.success(sEventCounters.getCount(eventId, onlyRecorded));
+                break;
+            case "resetEventRecordCounts":
+                eventId = call.argument("eventId");
+                sEventCounters.reset(eventId);
+                break;
+            case "getMemoryTrimReport":
+                result.success(sMemoryTrimmer.getLastReport());
+                break;
+            case "getWarmStartInfo":
+                FlurryFlutterWarmStart warmStart = sWarmStart;
+                result.success((warmStart != null) ? warmStart.getInfo() : null);
+                break;
+            case "getStartupReport":
+                result.success(sStartupTrace.getReport());
+                break;
+            case "getSuppressedStateCounts":
+                result.success(sStateCache.getSuppressedCounts());
+                break;
+            case "invalidateStateCache":
+                sStateCache.invalidate();
                 break;
             case "registerConfigListener":
-                // no-op
+                // Fetch decisions are only sent once a Dart listener asks for them.
+                if (Boolean.TRUE.equals(call.<Boolean>argument("fetchDecisions"))) {
+                    sReportFetchDecisions = true;
+                }
                 break;
             case "fetchConfig":
-                FlurryConfig.getInstance().fetchConfig();
+                sConfigFetcher.fetch();
+                break;
+            case "setConfigFetchPolicy":
+                int minIntervalMillis = call.<Integer>argument("minIntervalMillis");
+                int initialBackoffMillis = call.<Integer>argument("initialBackoffMillis");
+                int maxBackoffMillis = call.<Integer>argument("maxBackoffMillis");
+                int maxRetries = call.<Integer>argument("maxRetries");
+                sConfigFetcher.configure(minIntervalMillis, initialBackoffMillis, maxBackoffMillis, maxRetries);
                 break;
             case "activateConfig":
-                FlurryConfig.getInstance().activateConfig();
+                boolean activateTraced = FlurryFlutterTracer.beginSdkSection("activateConfig");
+                try {
+                    FlurryConfig.getInstance().activateConfig();
+                } finally {
+                    FlurryFlutterTracer.endSection(activateTraced);
+                }
                 break;
             case "getConfigString":
                 String key = call.argument("key");
                 String defaultValue = call.argument("defaultValue");
-                String configValue = FlurryConfig.getInstance().getString(key, defaultValue);
+                String configValue = getConfigString(key, defaultValue);
                 result.success(configValue);
                 break;
+            case "getConfigLong":
+                String longKey = call.argument("key");
+                long longDefault = call.<Number>argument("defaultValue").longValue();
+                result.success(getConfigLong(longKey, longDefault));
+                break;
+            case "getConfigDouble":
+                String doubleKey = call.argument("key");
+                double doubleDefault = call.<Double>argument("defaultValue");
+                result.success(getConfigDouble(doubleKey, doubleDefault));
+                break;
+            case "getConfigBoolean":
+                String booleanKey = call.argument("key");
+                boolean booleanDefault = call.<Boolean>argument("defaultValue");
+                result.success(getConfigBoolean(booleanKey, booleanDefault));
+                break;
+            case "getConfigJson":
+                String jsonKey = call.argument("key");
+                Number knownHash = call.argument("knownHash");
+                result.success(getConfigJson(jsonKey, (knownHash != null) ? knownHash.longValue() : null));
+                break;
+            case "getConfigHash":
+                String hashKey = call.argument("key");
+                result.success(sConfigCache.getHash(hashKey));
+                break;
+            case "getConfigCacheCounts":
+                result.success(sConfigCache.getCounts());
+                break;
             case "setMessagingListener":
                 // no-op
                 break;
@@ -480,11 +811,56 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
                 result.success(fetched);
                 break;
             case "getPublisherData":
-                Map<String, String> data = FlurryPublisherSegmentation.getPublisherData();
+                Map<String, String> data = getPublisherData();
                 result.success(data);
                 break;
             case "fetchPublisherData":
-                FlurryPublisherSegmentation.fetch();
+                fetchPublisherData();
+                break;
+            case "setPublisherDataTtl":
+                int publisherTtlMillis = call.<Integer>argument("ttlMillis");
+                sPublisherFetcher.setTtl(publisherTtlMillis);
+                break;
+            case "getPublisherFetchCounts":
+                result.success(sPublisherFetcher.getCounts());
+                break;
+            case "enterRoute":
+                String route = call.argument("route");
+                enterRoute(route);
+                break;
+            case "exitRoute":
+                route = call.argument("route");
+                exitRoute(route);
+                break;
+            case "setRouteEngagementThreshold":
+                int engagementThresholdMillis = call.<Integer>argument("thresholdMillis");
+                setRouteEngagementThreshold(engagementThresholdMillis);
+                break;
+            case "setDataBudget":
+                String eventClass = call.argument("eventClass");
+                List<String> budgetEventIds = call.argument("eventIds");
+                long dailyBytes = call.<Number>argument("dailyBytes").longValue();
+                double overBudgetSampleRate = call.<Double>argument("overBudgetSampleRate");
+                setDataBudget(eventClass, budgetEventIds, dailyBytes, overBudgetSampleRate);
+                break;
+            case "getDataUsage":
+                result.success(sDataBudget.getUsage());
+                break;
+            case "setPiiScrubbing":
+                boolean piiScrubbing = call.<Boolean>argument("enabled");
+                List<String> exemptEventIds = call.argument("exemptEventIds");
+                setPiiScrubbing(piiScrubbing, exemptEventIds);
+                break;
+            case "getEventInterceptorCounts":
+                result.success(sInterceptors.getCounts());
+                break;
+            case "setPaymentDedup":
+                boolean paymentDedup = call.<Boolean>argument("enabled");
+                int paymentDedupCapacity = call.<Integer>argument("capacity");
+                setPaymentDedup(paymentDedup, paymentDedupCapacity);
+                break;
+            case "getPaymentDedupCounts":
+                result.success(getPaymentDedupCounts());
                 break;
             case "registerPublisherDataListener":
                 // no-op
@@ -494,6 +870,29 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
         }
     }
 
+    /**
+     * Replies the event recording status, unless it is a fire-and-forget ("NoReply") call.
+     */
+    private static void replyStatus(MethodCall call, Result result, int status) {
+        if (!call.method.endsWith(NO_REPLY_SUFFIX)) {
+            result.success(status);
+        }
+    }
+
+    private static int recordStatus(String eventId, FlurryEventRecordStatus status) {
+        if (status == FlurryEventRecordStatus.kFlurryEventRecorded) {
+            sStartupTrace.onEventRecorded();
+        }
+        // The SDK calls return a null status for the events dropped by an interceptor or the budget.
+        return recordStatus(eventId, (status != null)
+                ? FlurryFlutterEventCounters.statusOf(status) : FlurryFlutterEventCounters.STATUS_DROPPED);
+    }
+
+    private static int recordStatus(String eventId, int status) {
+        sEventCounters.record(eventId, status);
+        return status;
+    }
+
     public void initializeFlurryBuilder() {
         builder = new FlurryAgent.Builder();
         builder.withSessionForceStart(true)
@@ -501,7 +900,12 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
     }
 
     public void buildFlurryBuilder(String apiKey) {
-        FlurryAgent.addOrigin(ORIGIN_NAME, ORIGIN_VERSION);
+        boolean traced = FlurryFlutterTracer.beginSdkSection("addOrigin");
+        try {
+            FlurryAgent.addOrigin(ORIGIN_NAME, ORIGIN_VERSION);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
         builder.build(context, apiKey);
     }
 
@@ -560,40 +964,125 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
         builder.withModule(marketingModule);
     }
 
-    public void addUserPropertyValue(String propertyName, String propertyValue) {
-        FlurryAgent.UserProperties.add(propertyName, propertyValue);
+    public void addUserPropertyValue(final String propertyName, final String propertyValue) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.add");
+                try {
+                    FlurryAgent.UserProperties.add(propertyName, propertyValue);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
-    public void addUserPropertyValues(String propertyName, List<String> propertyValues) {
-        FlurryAgent.UserProperties.add(propertyName, propertyValues);
+    public void addUserPropertyValues(final String propertyName, final List<String> propertyValues) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.add");
+                try {
+                    FlurryAgent.UserProperties.add(propertyName, propertyValues);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
-    public void flagUserProperty(String propertyName) {
-        FlurryAgent.UserProperties.flag(propertyName);
+    public void flagUserProperty(final String propertyName) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.flag");
+                try {
+                    FlurryAgent.UserProperties.flag(propertyName);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
-    public void removeUserProperty(String propertyName) {
-        FlurryAgent.UserProperties.remove(propertyName);
+    public void removeUserProperty(final String propertyName) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.remove");
+                try {
+                    FlurryAgent.UserProperties.remove(propertyName);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
-    public void removeUserPropertyValue(String propertyName, String propertyValue) {
-        FlurryAgent.UserProperties.remove(propertyName, propertyValue);
+    public void removeUserPropertyValue(final String propertyName, final String propertyValue) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.remove");
+                try {
+                    FlurryAgent.UserProperties.remove(propertyName, propertyValue);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
-    public void removeUserPropertyValues(String propertyName, List<String> propertyValues) {
-        FlurryAgent.UserProperties.remove(propertyName, propertyValues);
+    public void removeUserPropertyValues(final String propertyName, final List<String> propertyValues) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.remove");
+                try {
+                    FlurryAgent.UserProperties.remove(propertyName, propertyValues);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
-    public void setUserPropertyValue(String propertyName, String propertyValue) {
-        FlurryAgent.UserProperties.set(propertyName, propertyValue);
+    public void setUserPropertyValue(final String propertyName, final String propertyValue) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.set");
+                try {
+                    FlurryAgent.UserProperties.set(propertyName, propertyValue);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
-    public void setUserPropertyValues(String propertyName, List<String> propertyValues) {
-        FlurryAgent.UserProperties.set(propertyName, propertyValues);
+    public void setUserPropertyValues(final String propertyName, final List<String> propertyValues) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("UserProperties.set");
+                try {
+                    FlurryAgent.UserProperties.set(propertyName, propertyValues);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
     public void reportFullyDrawn() {
-        FlurryPerformance.reportFullyDrawn();
+        boolean traced = FlurryFlutterTracer.beginSdkSection("reportFullyDrawn");
+        try {
+            FlurryPerformance.reportFullyDrawn();
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void startResourceLogger() {
@@ -607,59 +1096,159 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
     }
 
     public void setAge(String ageStr) {
+        if (!sStateCache.shouldSend(FlurryFlutterStateCache.Setter.Age, ageStr)) {
+            return;
+        }
+
         int age = Integer.parseInt(ageStr);
-        FlurryAgent.setAge(age);
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setAge");
+        try {
+            FlurryAgent.setAge(age);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void setGender(String gender) {
-        if (gender.equals("f")) {
-            byte female = 0;
-            FlurryAgent.setGender(female);
-        } else {
-            byte male = 1;
-            FlurryAgent.setGender(male);
+        if (!sStateCache.shouldSend(FlurryFlutterStateCache.Setter.Gender, gender)) {
+            return;
+        }
+
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setGender");
+        try {
+            if (gender.equals("f")) {
+                byte female = 0;
+                FlurryAgent.setGender(female);
+            } else {
+                byte male = 1;
+                FlurryAgent.setGender(male);
+            }
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
         }
     }
 
     public void setReportLocation(boolean reportLocation) {
-        FlurryAgent.setReportLocation(reportLocation);
+        if (!sStateCache.shouldSend(FlurryFlutterStateCache.Setter.ReportLocation, reportLocation)) {
+            return;
+        }
+
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setReportLocation");
+        try {
+            FlurryAgent.setReportLocation(reportLocation);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void setSessionOrigin(String originName, String deepLink) {
-        FlurryAgent.setSessionOrigin(originName, deepLink);
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setSessionOrigin");
+        try {
+            FlurryAgent.setSessionOrigin(originName, deepLink);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void setUserId(String userId) {
-        FlurryAgent.setUserId(userId);
+        if (!sStateCache.shouldSend(FlurryFlutterStateCache.Setter.UserId, userId)) {
+            return;
+        }
+
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setUserId");
+        try {
+            FlurryAgent.setUserId(userId);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void setVersionName(String versionName) {
-        FlurryAgent.setVersionName(versionName);
+        if (!sStateCache.shouldSend(FlurryFlutterStateCache.Setter.VersionName, versionName)) {
+            return;
+        }
+
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setVersionName");
+        try {
+            FlurryAgent.setVersionName(versionName);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void addOrigin(String originName, String originVersion) {
-        FlurryAgent.addOrigin(originName, originVersion);
+        boolean traced = FlurryFlutterTracer.beginSdkSection("addOrigin");
+        try {
+            FlurryAgent.addOrigin(originName, originVersion);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void addOriginWithParameters(String originName, String originVersion,
                                         Map<String, String> parameters) {
-        FlurryAgent.addOrigin(originName, originVersion, parameters);
+        boolean traced = FlurryFlutterTracer.beginSdkSection("addOrigin");
+        try {
+            FlurryAgent.addOrigin(originName, originVersion, parameters);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
-    public void addSessionProperty(String sessionName, String sessionValue) {
-        FlurryAgent.addSessionProperty(sessionName, sessionValue);
+    public void addSessionProperty(final String sessionName, final String sessionValue) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean traced = FlurryFlutterTracer.beginSdkSection("addSessionProperty");
+                try {
+                    FlurryAgent.addSessionProperty(sessionName, sessionValue);
+                } finally {
+                    FlurryFlutterTracer.endSection(traced);
+                }
+            }
+        });
     }
 
     public void setIAPReportingEnabled() {
         Log.w(TAG, "setIAPReportingEnabled is not supported on Android. Please use LogPayment instead.");
     }
 
+    public void setGppConsent(String gppString, List<Integer> gppSectionIds) {
+        // Compare the arguments as received, the section IDs set is only built when sent.
+        if (!sStateCache.shouldSend(FlurryFlutterStateCache.Setter.GppConsent,
+                Arrays.asList(gppString, gppSectionIds))) {
+            return;
+        }
+
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setGppConsent");
+        try {
+            FlurryAgent.setGppConsent(gppString, new HashSet<>(gppSectionIds));
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
     public void setDataSaleOptOut(boolean isOptOut) {
-        FlurryAgent.setDataSaleOptOut(isOptOut);
+        if (!sStateCache.shouldSend(FlurryFlutterStateCache.Setter.DataSaleOptOut, isOptOut)) {
+            return;
+        }
+
+        boolean traced = FlurryFlutterTracer.beginSdkSection("setDataSaleOptOut");
+        try {
+            FlurryAgent.setDataSaleOptOut(isOptOut);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public void deleteData() {
-        FlurryAgent.deleteData();
+        boolean traced = FlurryFlutterTracer.beginSdkSection("deleteData");
+        try {
+            FlurryAgent.deleteData();
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+        sStateCache.invalidate();
     }
 
     public void openPrivacyDashboard() {
@@ -681,7 +1270,12 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
         };
 
         FlurryPrivacySession.Request request = new FlurryPrivacySession.Request(context, callback);
-        FlurryAgent.openPrivacyDashboard(request);
+        boolean traced = FlurryFlutterTracer.beginSdkSection("openPrivacyDashboard");
+        try {
+            FlurryAgent.openPrivacyDashboard(request);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
     }
 
     public int getAgentVersion() {
@@ -696,63 +1290,119 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
         return FlurryAgent.getSessionId();
     }
 
+    public void setDefaultParameters(Map<String, String> parameters) {
+        sDefaultParameters.update(parameters);
+    }
+
     public int logEvent(String eventId) {
-        FlurryEventRecordStatus status = FlurryAgent.logEvent(eventId);
-        return (status != null) ? status.ordinal() : 0;
+        if (sEventPolicy.isThrottled(eventId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventLogCountExceeded);
+        }
+        FlurryEventRecordStatus status = sDefaultParameters.isEmpty()
+                ? sSdk.logEvent(eventId)
+                : sSdk.logEvent(eventId, sDefaultParameters.merge(null));
+        return recordStatus(eventId, status);
     }
 
     public int logEventWithParameters(String eventId, Map<String, String> parameters) {
-        FlurryEventRecordStatus status = FlurryAgent.logEvent(eventId, parameters);
-        return (status != null) ? status.ordinal() : 0;
+        if (sEventPolicy.isThrottled(eventId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventLogCountExceeded);
+        }
+        FlurryEventRecordStatus status = sSdk.logEvent(eventId, sDefaultParameters.merge(parameters));
+        return recordStatus(eventId, status);
     }
 
     public int logTimedEvent(String eventId, boolean timed) {
-        FlurryEventRecordStatus status = FlurryAgent.logEvent(eventId, timed);
-        return (status != null) ? status.ordinal() : 0;
+        if (sEventPolicy.isThrottled(eventId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventLogCountExceeded);
+        }
+        if (timed && sDurationHistograms.start(eventId, null)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventRecorded);
+        }
+        FlurryEventRecordStatus status = sDefaultParameters.isEmpty()
+                ? sSdk.logEvent(eventId, timed)
+                : sSdk.logEvent(eventId, sDefaultParameters.merge(null), timed);
+        return recordStatus(eventId, status);
     }
 
     public int logTimedEventWithParameters(String eventId, Map<String, String> parameters, boolean timed) {
-        FlurryEventRecordStatus status = FlurryAgent.logEvent(eventId, parameters, timed);
-        return (status != null) ? status.ordinal() : 0;
+        if (sEventPolicy.isThrottled(eventId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventLogCountExceeded);
+        }
+        if (timed && sDurationHistograms.start(eventId, null)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventRecorded);
+        }
+        FlurryEventRecordStatus status = sSdk.logEvent(eventId, sDefaultParameters.merge(parameters), timed);
+        return recordStatus(eventId, status);
     }
 
     public int logTimedEventId(String eventId, String timedId) {
-        FlurryEventRecordStatus status = FlurryAgent.logEvent(eventId, timedId);
-        return (status != null) ? status.ordinal() : 0;
+        if (sEventPolicy.isThrottled(eventId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventLogCountExceeded);
+        }
+        if (sDurationHistograms.start(eventId, timedId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventRecorded);
+        }
+        FlurryEventRecordStatus status = sDefaultParameters.isEmpty()
+                ? sSdk.logEvent(eventId, timedId)
+                : sSdk.logEvent(eventId, sDefaultParameters.merge(null), timedId);
+        return recordStatus(eventId, status);
     }
 
     public int logTimedEventIdWithParameters(String eventId, Map<String, String> parameters, String timedId) {
-        FlurryEventRecordStatus status = FlurryAgent.logEvent(eventId, parameters, timedId);
-        return (status != null) ? status.ordinal() : 0;
+        if (sEventPolicy.isThrottled(eventId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventLogCountExceeded);
+        }
+        if (sDurationHistograms.start(eventId, timedId)) {
+            return recordStatus(eventId, FlurryEventRecordStatus.kFlurryEventRecorded);
+        }
+        FlurryEventRecordStatus status = sSdk.logEvent(eventId, sDefaultParameters.merge(parameters), timedId);
+        return recordStatus(eventId, status);
     }
 
     public void endTimedEvent(String eventId) {
-        FlurryAgent.endTimedEvent(eventId);
+        if (sDurationHistograms.end(eventId, null)) {
+            return;
+        }
+        sSdk.endTimedEvent(eventId);
     }
 
     public void endTimedEventWithParameters(String eventId, Map<String, String> parameters) {
-        FlurryAgent.endTimedEvent(eventId, parameters);
+        if (sDurationHistograms.end(eventId, null)) {
+            return;
+        }
+        sSdk.endTimedEvent(eventId, parameters);
     }
 
     public void endTimedEventId(String eventId, String timedId) {
-        FlurryAgent.endTimedEvent(eventId, timedId);
+        if (sDurationHistograms.end(eventId, timedId)) {
+            return;
+        }
+        sSdk.endTimedEvent(eventId, timedId);
     }
 
     public void endTimedEventIdWithParameters(String eventId, Map<String, String> parameters, String timedId) {
-        FlurryAgent.endTimedEvent(eventId, parameters, timedId);
+        if (sDurationHistograms.end(eventId, timedId)) {
+            return;
+        }
+        sSdk.endTimedEvent(eventId, parameters, timedId);
     }
 
     public int logStandardEvent(int standardId, Map<Integer, String> flurryParam, Map<String, String> userParam) {
         // Find the standard event ID.
         if ((standardId < 0) || (standardId >= FlurryFlutterEvent.EVENTS.length)) {
             Log.e(TAG, "Standard event ID is out of range: " + standardId);
-            return FlurryEventRecordStatus.kFlurryEventFailed.ordinal();
+            return recordStatus(null, FlurryEventRecordStatus.kFlurryEventFailed);
         }
         FlurryEvent event = FlurryFlutterEvent.EVENTS[standardId];
+        if (sEventPolicy.isThrottled(event.toString())) {
+            return recordStatus(event.toString(), FlurryEventRecordStatus.kFlurryEventLogCountExceeded);
+        }
 
         // Construct the standard event parameters.
         FlurryEvent.Params params = new FlurryEvent.Params();
         Map<Object, String> paramMap = params.getParams();
+        sDefaultParameters.putInto(paramMap);
         for (Map.Entry<Integer, String> entry : flurryParam.entrySet()) {
             int paramIndex = entry.getKey();
             if ((paramIndex < 0) || (paramIndex >= FlurryFlutterEvent.PARAMS.length)) {
@@ -765,27 +1415,338 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
             paramMap.put(entry.getKey(), entry.getValue());
         }
 
-        FlurryEventRecordStatus status = FlurryAgent.logEvent(event, params);
-        return (status != null) ? status.ordinal() : 0;
+        FlurryEventRecordStatus status = sSdk.logEvent(event, params);
+        return recordStatus(event.toString(), status);
     }
 
     public void onError(String errorId, String message, String errorClass) {
-        FlurryAgent.onError(errorId, message, errorClass);
+        // Deferred breadcrumbs belong to this error.
+        sIdleExecutor.flush();
+        sErrorFilter.onError(errorId, message, errorClass, null);
     }
 
     public void onErrorWithParameters(String errorId, String message, String errorClass, Map<String, String> parameters) {
-        FlurryAgent.onError(errorId, message, errorClass, parameters);
+        sIdleExecutor.flush();
+        sErrorFilter.onError(errorId, message, errorClass, parameters);
+    }
+
+    public void setErrorDeduplication(boolean enabled, long windowMillis, int maxFingerprints) {
+        sErrorFilter.configure(enabled, windowMillis, maxFingerprints);
+
+        // Report the occurrence counts of the expired windows, without waiting for a repeat.
+        if (sErrorFlushTask != null) {
+            sErrorFlushTask.cancel();
+            sErrorFlushTask = null;
+        }
+        if (enabled) {
+            sErrorFlushTask = sLifecycle.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    sErrorFilter.flushExpired();
+                }
+            }, windowMillis);
+        }
+    }
+
+    public void setTimedEventMeasurement(String eventId, boolean enabled) {
+        sDurationHistograms.setMeasured(eventId, enabled);
+    }
+
+    public void setTimedEventSummaryInterval(long intervalMillis) {
+        if (sDurationReportTask != null) {
+            sDurationReportTask.cancel();
+            sDurationReportTask = null;
+        }
+        if (intervalMillis > 0) {
+            sDurationReportTask = sLifecycle.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    sDurationHistograms.flush();
+                }
+            }, intervalMillis);
+        }
+    }
+
+    public void enterRoute(String route) {
+        sEngagement.enter(route);
+    }
+
+    public void exitRoute(String route) {
+        sEngagement.exit(route);
     }
 
-    public void logBreadcrumb(String crashBreadcrumb) {
-        FlurryAgent.logBreadcrumb(crashBreadcrumb);
+    public void setRouteEngagementThreshold(long thresholdMillis) {
+        sEngagement.setThreshold(thresholdMillis);
+    }
+
+    /**
+     * Returns the config value, or its value of the last launch while no config is activated.
+     */
+    public String getConfigString(String key, String defaultValue) {
+        return readConfigString(key, defaultValue);
+    }
+
+    /**
+     * Returns the config value parsed as a long, or defaultValue if there is none or not a number.
+     */
+    public long getConfigLong(String key, long defaultValue) {
+        Object value = sConfigCache.get(key, FlurryFlutterConfigCache.TYPE_LONG);
+        return (value != null) ? (Long) value : defaultValue;
+    }
+
+    /**
+     * Returns the config value parsed as a double, or defaultValue if there is none or not a number.
+     */
+    public double getConfigDouble(String key, double defaultValue) {
+        Object value = sConfigCache.get(key, FlurryFlutterConfigCache.TYPE_DOUBLE);
+        return (value != null) ? (Double) value : defaultValue;
+    }
+
+    /**
+     * Returns the config value parsed as a boolean, or defaultValue if it is not "true" or "false".
+     */
+    public boolean getConfigBoolean(String key, boolean defaultValue) {
+        Object value = sConfigCache.get(key, FlurryFlutterConfigCache.TYPE_BOOLEAN);
+        return (value != null) ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * Returns {"hash": hash of the raw value, "value": parsed JSON value}, without the value if
+     * its hash is knownHash. The hash is null if the config has no value, and the value is null if
+     * it is not valid JSON.
+     */
+    public Map<String, Object> getConfigJson(String key, Long knownHash) {
+        Long hash = sConfigCache.getHash(key);
+        Map<String, Object> json = new HashMap<>();
+        json.put("hash", hash);
+        if (hash == null || !hash.equals(knownHash)) {
+            json.put("value", sConfigCache.get(key, FlurryFlutterConfigCache.TYPE_JSON));
+        }
+        return json;
+    }
+
+    private static String readConfigString(String key, String defaultValue) {
+        FlurryFlutterWarmStart warmStart = sWarmStart;
+        if (warmStart == null) {
+            return sSdk.getConfigString(key, defaultValue);
+        }
+
+        String value = warmStart.getConfig(key);
+        if (value == null) {
+            // The last-known value is the SDK's own, never the caller's default.
+            value = sSdk.getConfigString(key, null);
+            warmStart.putConfig(key, value);
+        }
+        return (value != null) ? value : defaultValue;
+    }
+
+    @VisibleForTesting
+    static void useWarmStart(FlurryFlutterWarmStart warmStart) {
+        sWarmStart = warmStart;
+    }
+
+    /**
+     * Returns the publisher data, or the data of the last launch while none is fetched.
+     */
+    public Map<String, String> getPublisherData() {
+        Map<String, String> data = FlurryPublisherSegmentation.getPublisherData();
+        FlurryFlutterWarmStart warmStart = sWarmStart;
+        if ((data == null || data.isEmpty()) && warmStart != null) {
+            Map<String, String> lastData = warmStart.getPublisherData();
+            if (!lastData.isEmpty()) {
+                return lastData;
+            }
+        }
+        return data;
+    }
+
+    public void fetchPublisherData() {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                sPublisherFetcher.fetch();
+            }
+        });
+    }
+
+    public void setIdleScheduling(boolean enabled, long maxDeferralMillis) {
+        sIdleExecutor.configure(enabled, maxDeferralMillis);
+    }
+
+    /**
+     * Enables or disables the built-in exporter to the local event log.
+     */
+    public void setLocalEventLog(boolean enabled, int maxBytes) {
+        synchronized (sExporterLock) {
+            if (sEventLog != null) {
+                removeEventExporter(sEventLog);
+                sLifecycle.removeFlushable(sEventLog);
+                sEventLog.close();
+                sEventLog = null;
+            }
+            if (!enabled) {
+                return;
+            }
+
+            try {
+                sEventLog = FlurryFlutterMappedEventLog.open(getEventLogDirectory(), maxBytes);
+                sLifecycle.addFlushable(sEventLog);
+                addEventExporter(sEventLog);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to open the local event log.", e);
+            }
+        }
+    }
+
+    public List<Map<String, Object>> getLocalEventLog() {
+        List<Map<String, Object>> records = new ArrayList<>();
+        try {
+            for (FlurryFlutterEventLogReader.Record record : FlurryFlutterEventLogReader.read(getEventLogDirectory())) {
+                records.add(record.toMap());
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to read the local event log.", e);
+        }
+        return records;
+    }
+
+    private File getEventLogDirectory() {
+        return new File(context.getFilesDir(), "flurry_flutter_event_log");
+    }
+
+    /**
+     * Starts capturing the incoming method calls, replacing the previous capture.
+     */
+    public void startCallCapture() {
+        stopCallCapture();
+        try {
+            FlurryFlutterCallCapture capture = new FlurryFlutterCallCapture(
+                    new File(context.getFilesDir(), "flurry_flutter_call_capture"));
+            sLifecycle.addFlushable(capture);
+            sCallCapture = capture;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to start the call capture.", e);
+        }
+    }
+
+    /**
+     * Stops capturing the method calls, and returns the capture file, or null.
+     */
+    private static synchronized File stopCallCapture() {
+        FlurryFlutterCallCapture capture = sCallCapture;
+        if (capture == null) {
+            return null;
+        }
+
+        sCallCapture = null;
+        sLifecycle.removeFlushable(capture);
+        try {
+            capture.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write the call capture.", e);
+        }
+        return capture.getFile();
+    }
+
+    /**
+     * Sets the daily byte budget of a class of low-priority events, or removes the class if
+     * dailyBytes is 0. Over the budget, the events are dropped, or sampled at the given rate.
+     */
+    public void setDataBudget(String eventClass, List<String> eventIds, long dailyBytes, double overBudgetSampleRate) {
+        sDataBudget.setBudget(eventClass, eventIds, dailyBytes, overBudgetSampleRate);
+    }
+
+    /**
+     * Enables or disables the masking of emails, phone and card numbers in the event
+     * parameter values, except for the exempt events.
+     */
+    public void setPiiScrubbing(boolean enabled, List<String> exemptEventIds) {
+        if (enabled) {
+            sPiiScrubber.setExemptEventIds(exemptEventIds);
+            // Last, to also scrub what the other interceptors added.
+            sInterceptors.addLast("piiScrubber", sPiiScrubber);
+        } else {
+            sInterceptors.remove(sPiiScrubber);
+            sPiiScrubber.trim(FlurryFlutterMemoryTrimmer.LEVEL_RELEASE);
+        }
+    }
+
+    /**
+     * Enables or disables the filter of the payments already logged, with the number of
+     * transactions it remembers. Enabled by default.
+     */
+    public void setPaymentDedup(boolean enabled, int capacity) {
+        synchronized (sPaymentDedupLock) {
+            closePaymentDedup();
+            sPaymentDedupEnabled = enabled;
+            sPaymentDedupCapacity = (capacity > 0) ? capacity : FlurryFlutterPaymentDedup.DEFAULT_CAPACITY;
+        }
+    }
+
+    public Map<String, Object> getPaymentDedupCounts() {
+        FlurryFlutterPaymentDedup dedup = getPaymentDedup();
+        return (dedup != null) ? dedup.getCounts() : null;
+    }
+
+    /**
+     * Returns the payment filter, opened on first use, or null if it is disabled.
+     */
+    private FlurryFlutterPaymentDedup getPaymentDedup() {
+        synchronized (sPaymentDedupLock) {
+            if (sPaymentDedup == null && sPaymentDedupEnabled && context != null) {
+                sPaymentDedup = FlurryFlutterPaymentDedup.open(
+                        new File(context.getFilesDir(), "flurry_flutter_payments"), sPaymentDedupCapacity);
+                sLifecycle.addFlushable(sPaymentDedup);
+            }
+            return sPaymentDedup;
+        }
+    }
+
+    @VisibleForTesting
+    static void usePaymentDedup(FlurryFlutterPaymentDedup dedup) {
+        synchronized (sPaymentDedupLock) {
+            closePaymentDedup();
+            sPaymentDedup = dedup;
+        }
+    }
+
+    private static void closePaymentDedup() {
+        if (sPaymentDedup != null) {
+            sLifecycle.removeFlushable(sPaymentDedup);
+            sPaymentDedup.flush();
+            sPaymentDedup = null;
+        }
+    }
+
+    public void setEventBufferOptions(int capacity, long ttlMillis) {
+        sConfigEventStream.configure(capacity, ttlMillis);
+        sMessagingEventStream.configure(capacity, ttlMillis);
+        sPublisherEventStream.configure(capacity, ttlMillis);
+        sBudgetEventStream.configure(capacity, ttlMillis);
+    }
+
+    public void logBreadcrumb(final String crashBreadcrumb) {
+        sIdleExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                sSdk.logBreadcrumb(crashBreadcrumb);
+            }
+        });
     }
 
     public int logPayment(String productName, String productId, int quantity, double price,
                                 String currency, String transactionId, Map<String, String> parameters) {
-        FlurryEventRecordStatus status = FlurryAgent.logPayment(productName, productId, quantity, price, currency,
+        FlurryFlutterPaymentDedup dedup = getPaymentDedup();
+        if (dedup != null && dedup.contains(transactionId)) {
+            return recordStatus(PAYMENT_EVENT_ID, FlurryFlutterEventCounters.STATUS_DUPLICATED);
+        }
+
+        FlurryEventRecordStatus status = sSdk.logPayment(productName, productId, quantity, price, currency,
                 transactionId, parameters);
-        return (status != null) ? status.ordinal() : 0;
+        if (dedup != null && status == FlurryEventRecordStatus.kFlurryEventRecorded) {
+            dedup.remember(transactionId);
+        }
+        return recordStatus(PAYMENT_EVENT_ID, status);
     }
 
     /**
@@ -889,6 +1850,8 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
                 return this;
             }
 
+            boolean phaseTraced = sStartupTrace.begin(FlurryFlutterStartupTrace.PHASE_MESSAGING);
+
             if (messagingListener == null) {
                 messagingListener = new FlutterFlurryMessagingListener();
             }
@@ -906,6 +1869,7 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
             mFlurryAgentBuilder.withModule(marketingModule);
 
             messagingInitialized = true;
+            sStartupTrace.end(FlurryFlutterStartupTrace.PHASE_MESSAGING, phaseTraced);
             return this;
         }
 
@@ -921,6 +1885,8 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
                 return this;
             }
 
+            boolean phaseTraced = sStartupTrace.begin(FlurryFlutterStartupTrace.PHASE_MESSAGING);
+
             // If user does not specify the messaging listener, use the Flutter default listener.
             if (messagingOptions.getFlurryMessagingListener() == null) {
                 FlurryMarketingOptions.Builder builder = new FlurryMarketingOptions.Builder();
@@ -942,16 +1908,81 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
             mFlurryAgentBuilder.withModule(marketingModule);
 
             messagingInitialized = true;
+            sStartupTrace.end(FlurryFlutterStartupTrace.PHASE_MESSAGING, phaseTraced);
             return this;
         }
 
         public void build(final Context context, final String apiKey) {
-            mFlurryAgentBuilder
-                    .withSessionForceStart(true)
-                    .build(context, apiKey);
+            boolean phaseTraced = sStartupTrace.begin(FlurryFlutterStartupTrace.PHASE_BUILD);
+            try {
+                mFlurryAgentBuilder
+                        .withSessionForceStart(true)
+                        .build(context, apiKey);
+            } finally {
+                sStartupTrace.end(FlurryFlutterStartupTrace.PHASE_BUILD, phaseTraced);
+            }
         }
     }
 
+    /**
+     * True to enable or false to disable android.os.Trace sections for the plugin work: the
+     * method calls, the Flurry SDK calls, the listener callbacks, the events delivered to Dart,
+     * and the startup phases. Async sections connect an SDK callback to the delivery of its
+     * event on the UI main thread, from Android 10. Call it before the Flutter engine attaches the plugin, to trace
+     * the plugin attach as well. Default is set to false.
+     *
+     * @param enabled true to enable, false to disable.
+     */
+    public static void setSystemTraceEnabled(final boolean enabled) {
+        FlurryFlutterTracer.setEnabled(enabled);
+    }
+
+    /**
+     * Replaces the Flurry SDK calls, e.g. with a stand-in to replay captured calls.
+     */
+    @VisibleForTesting
+    static void setSdk(FlurryFlutterSdk sdk) {
+        sExportingSdk.setSdk(new FlurryFlutterTracedSdk(sdk));
+    }
+
+    /**
+     * Adds an exporter that receives a copy of every call forwarded to the Flurry SDK.
+     *
+     * @param exporter the exporter to add.
+     */
+    public static void addEventExporter(@NonNull final FlurryFlutterEventExporter exporter) {
+        sExportingSdk.addExporter(exporter);
+    }
+
+    /**
+     * Removes an exporter added with {@link #addEventExporter}.
+     *
+     * @param exporter the exporter to remove.
+     */
+    public static void removeEventExporter(@NonNull final FlurryFlutterEventExporter exporter) {
+        sExportingSdk.removeExporter(exporter);
+    }
+
+    /**
+     * Adds an interceptor at the end of the chain that the events pass through before they
+     * reach the Flurry SDK.
+     *
+     * @param name        the name of the interceptor in the counts, or null for its class name.
+     * @param interceptor the interceptor to add.
+     */
+    public static void addEventInterceptor(final String name, @NonNull final FlurryFlutterEventInterceptor interceptor) {
+        sInterceptors.add(name, interceptor);
+    }
+
+    /**
+     * Removes an interceptor added with {@link #addEventInterceptor}.
+     *
+     * @param interceptor the interceptor to remove.
+     */
+    public static void removeEventInterceptor(@NonNull final FlurryFlutterEventInterceptor interceptor) {
+        sInterceptors.remove(interceptor);
+    }
+
     private static Handler getHandler() {
         // Use non-UI thread to notify the messaging listeners.
         HandlerThread handlerThread = new HandlerThread("FlurryHandlerThread");
@@ -964,12 +1995,17 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
      * Wrapper Flurry Config listener.
      */
     static class FlutterFlurryConfigListener implements FlurryConfigListener {
+        private static final String SECTION_FETCH_SUCCESS = "Flurry:config:onFetchSuccess";
+        private static final String SECTION_FETCH_NO_CHANGE = "Flurry:config:onFetchNoChange";
+        private static final String SECTION_FETCH_ERROR = "Flurry:config:onFetchError";
+        private static final String SECTION_ACTIVATE_COMPLETE = "Flurry:config:onActivateComplete";
 
         public enum EventType {
             FetchSuccess("FetchSuccess"),
             FetchNoChange("FetchNoChange"),
             FetchError("FetchError"),
-            ActivateComplete("ActivateComplete");
+            ActivateComplete("ActivateComplete"),
+            FetchDecision("FetchDecision");
 
             private final String name;
 
@@ -982,50 +2018,109 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
             }
         }
 
-        private static EventChannel.EventSink eventSink;
-
-        FlutterFlurryConfigListener(EventChannel.EventSink eventSink) {
-            FlutterFlurryConfigListener.eventSink = eventSink;
-        }
-
         @Override
         public void onFetchSuccess() {
-            sendEvent(EventType.FetchSuccess);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_FETCH_SUCCESS);
+            try {
+                sConfigFetcher.onFetchComplete();
+                sendEvent(EventType.FetchSuccess);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
+            }
         }
 
         @Override
         public void onFetchNoChange() {
-            sendEvent(EventType.FetchNoChange);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_FETCH_NO_CHANGE);
+            try {
+                sConfigFetcher.onFetchComplete();
+                sendEvent(EventType.FetchNoChange);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
+            }
         }
 
         @Override
         public void onFetchError(boolean value) {
-            sendEvent(EventType.FetchError, "isRetrying", value);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_FETCH_ERROR);
+            try {
+                sendEvent(EventType.FetchError, value);
+                sConfigFetcher.onFetchError(value);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
+            }
         }
 
         @Override
         public void onActivateComplete(boolean value) {
-            sendEvent(EventType.ActivateComplete, "isCache", value);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_ACTIVATE_COMPLETE);
+            try {
+                sEventPolicy.update(sSdk.getConfigString(FlurryFlutterEventPolicy.CONFIG_KEY, ""));
+                FlurryFlutterWarmStart warmStart = sWarmStart;
+                if (warmStart != null) {
+                    for (String key : warmStart.onConfigActivated()) {
+                        warmStart.putConfig(key, sSdk.getConfigString(key, null));
+                    }
+                }
+                sConfigCache.invalidate();
+                sendEvent(EventType.ActivateComplete, value);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
+            }
+        }
+
+        // Config events have a handful of shapes, their payloads are shared and immutable.
+        private static final Map<String, String> FETCH_SUCCESS = payload(EventType.FetchSuccess, null, false);
+        private static final Map<String, String> FETCH_NO_CHANGE = payload(EventType.FetchNoChange, null, false);
+        private static final Map<String, String> FETCH_ERROR_RETRYING = payload(EventType.FetchError, "isRetrying", true);
+        private static final Map<String, String> FETCH_ERROR = payload(EventType.FetchError, "isRetrying", false);
+        private static final Map<String, String> ACTIVATE_COMPLETE_CACHE = payload(EventType.ActivateComplete, "isCache", true);
+        private static final Map<String, String> ACTIVATE_COMPLETE = payload(EventType.ActivateComplete, "isCache", false);
+        private static final Map<String, Map<String, String>> IMMEDIATE_DECISIONS = new HashMap<>();
+
+        static {
+            String[] decisions = {
+                    FlurryFlutterConfigFetcher.DECISION_FETCH,
+                    FlurryFlutterConfigFetcher.DECISION_COALESCED,
+                    FlurryFlutterConfigFetcher.DECISION_SDK_RETRYING
+            };
+            for (String decision : decisions) {
+                IMMEDIATE_DECISIONS.put(decision, decisionPayload(decision, 0));
+            }
         }
 
-        private void sendEvent(EventType type) {
-            sendEvent(type, null, false);
+        private static void sendEvent(EventType type) {
+            sConfigEventStream.send(type == EventType.FetchSuccess ? FETCH_SUCCESS : FETCH_NO_CHANGE);
         }
 
-        private void sendEvent(EventType type, String key, boolean value) {
-            final Map<String, String> params = new HashMap<>();
+        private static void sendEvent(EventType type, boolean value) {
+            if (type == EventType.FetchError) {
+                sConfigEventStream.send(value ? FETCH_ERROR_RETRYING : FETCH_ERROR);
+            } else {
+                sConfigEventStream.send(value ? ACTIVATE_COMPLETE_CACHE : ACTIVATE_COMPLETE);
+            }
+        }
+
+        static Map<String, String> decisionEvent(String decision, long delayMillis) {
+            Map<String, String> payload = (delayMillis == 0) ? IMMEDIATE_DECISIONS.get(decision) : null;
+            return (payload != null) ? payload : decisionPayload(decision, delayMillis);
+        }
+
+        private static Map<String, String> payload(EventType type, String key, boolean value) {
+            Map<String, String> params = new HashMap<>();
             params.put("type", type.getName());
             if (key != null) {
                 params.put(key, Boolean.toString(value));
             }
+            return Collections.unmodifiableMap(params);
+        }
 
-            // Run Flutter event channel on the UI main thread.
-            new Handler(Looper.getMainLooper()).post(new Runnable() {
-                @Override
-                public void run() {
-                    eventSink.success(params);
-                }
-            });
+        private static Map<String, String> decisionPayload(String decision, long delayMillis) {
+            Map<String, String> params = new HashMap<>();
+            params.put("type", EventType.FetchDecision.getName());
+            params.put("decision", decision);
+            params.put("delayMillis", Long.toString(delayMillis));
+            return Collections.unmodifiableMap(params);
         }
 
     }
@@ -1045,11 +2140,20 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
      * Wrapper Flurry Messaging listener.
      */
     static class FlutterFlurryMessagingListener implements FlurryMessagingListener {
-        private static EventChannel.EventSink eventSink;
+        private static final Object sCallbackLock = new Object();
         private static boolean sCallbackReturnValue = false;
         private static boolean sIsCallbackReturn = false;
         private static String sToken = null;
 
+        private static final FlurryFlutterPayload.Pool sMessagePayloads =
+                new FlurryFlutterPayload.Pool("type", "title", "body", "clickAction", "appData");
+        private static final FlurryFlutterPayload.Pool sTokenPayloads = new FlurryFlutterPayload.Pool("type", "token");
+
+        private static final String SECTION_NOTIFICATION_RECEIVED = "Flurry:messaging:onNotificationReceived";
+        private static final String SECTION_NOTIFICATION_CLICKED = "Flurry:messaging:onNotificationClicked";
+        private static final String SECTION_NOTIFICATION_CANCELLED = "Flurry:messaging:onNotificationCancelled";
+        private static final String SECTION_TOKEN_REFRESH = "Flurry:messaging:onTokenRefresh";
+
         enum EventType {
             NotificationReceived("NotificationReceived"),
             NotificationClicked("NotificationClicked"),
@@ -1068,7 +2172,12 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
         }
 
         public static void setEventSink(EventChannel.EventSink eventSink) {
-            FlutterFlurryMessagingListener.eventSink = eventSink;
+            if (eventSink == null) {
+                sMessagingEventStream.detach();
+                return;
+            }
+
+            sMessagingEventStream.attach(eventSink);
             if (sToken != null) {
                 sendEvent(EventType.TokenRefresh, sToken);
             }
@@ -1076,32 +2185,48 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
 
         @Override
         public boolean onNotificationReceived(FlurryMessage flurryMessage) {
-            if (eventSink != null) {
-                return sendEvent(EventType.NotificationReceived, flurryMessage, true);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_NOTIFICATION_RECEIVED);
+            try {
+                return sendEvent(EventType.NotificationReceived, flurryMessage.getTitle(), flurryMessage.getBody(),
+                        flurryMessage.getClickAction(), flurryMessage.getAppData(), true);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
             }
-            return false;
         }
 
         @Override
         public boolean onNotificationClicked(FlurryMessage flurryMessage) {
-            if (eventSink != null) {
-                return sendEvent(EventType.NotificationClicked, flurryMessage, true);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_NOTIFICATION_CLICKED);
+            try {
+                return sendEvent(EventType.NotificationClicked, flurryMessage.getTitle(), flurryMessage.getBody(),
+                        flurryMessage.getClickAction(), flurryMessage.getAppData(), true);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
             }
-            return false;
         }
 
         @Override
         public void onNotificationCancelled(FlurryMessage flurryMessage) {
-            if (eventSink != null) {
-                sendEvent(EventType.NotificationCancelled, flurryMessage, false);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_NOTIFICATION_CANCELLED);
+            try {
+                sendEvent(EventType.NotificationCancelled, flurryMessage.getTitle(), flurryMessage.getBody(),
+                        flurryMessage.getClickAction(), flurryMessage.getAppData(), false);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
             }
         }
 
         @Override
         public void onTokenRefresh(String token) {
-            sToken = token;
-            if (eventSink != null) {
-                sendEvent(EventType.TokenRefresh, token);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_TOKEN_REFRESH);
+            try {
+                sToken = token;
+                // The latest token is replayed when Dart subscribes, no need to buffer it.
+                if (sMessagingEventStream.hasListener()) {
+                    sendEvent(EventType.TokenRefresh, token);
+                }
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
             }
         }
 
@@ -1110,48 +2235,42 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
             // no-op
         }
 
-        private static boolean sendEvent(EventType type, FlurryMessage flurryMessage, boolean waitReturn) {
-            final Map<String, Object> params = new HashMap<>();
-            params.put("type", type.getName());
-            params.put("title", flurryMessage.getTitle());
-            params.put("body", flurryMessage.getBody());
-            params.put("clickAction", flurryMessage.getClickAction());
-            params.put("appData", flurryMessage.getAppData());
-
-            sCallbackReturnValue = false;
-            sIsCallbackReturn = !waitReturn;
+        @VisibleForTesting
+        static boolean sendEvent(EventType type, String title, String body, String clickAction,
+                                 Map<String, String> appData, boolean waitReturn) {
+            FlurryFlutterPayload params = sMessagePayloads.acquire()
+                    .set("type", type.getName())
+                    .set("title", title)
+                    .set("body", body)
+                    .set("clickAction", clickAction)
+                    .set("appData", appData);
+
+            // Without a Dart listener the event is buffered, and Flurry handles the notification.
+            boolean hasListener = sMessagingEventStream.hasListener();
+            synchronized (sCallbackLock) {
+                sCallbackReturnValue = false;
+                sIsCallbackReturn = !waitReturn || !hasListener;
+            }
 
-            // Run Flutter event channel on the UI main thread.
-            new Handler(Looper.getMainLooper()).post(new Runnable() {
-                @Override
-                public void run() {
-                    eventSink.success(params);
-                }
-            });
+            sMessagingEventStream.send(params);
 
             waitCallbackReturn();
             return sCallbackReturnValue;
         }
 
         private static void sendEvent(EventType type, String token) {
-            final Map<String, Object> params = new HashMap<>();
-            params.put("type", type.getName());
-            params.put("token", token);
+            FlurryFlutterPayload params = sTokenPayloads.acquire()
+                    .set("type", type.getName())
+                    .set("token", token);
 
-            // Run Flutter event channel on the UI main thread.
-            new Handler(Looper.getMainLooper()).post(new Runnable() {
-                @Override
-                public void run() {
-                    eventSink.success(params);
-                }
-            });
+            sMessagingEventStream.send(params);
         }
 
         private static void waitCallbackReturn() {
-            synchronized (eventSink) {
+            synchronized (sCallbackLock) {
                 if (!sIsCallbackReturn) {
                     try {
-                        eventSink.wait(300);
+                        sCallbackLock.wait(300);
                     } catch (InterruptedException e) {
                         Log.e(TAG, "Interrupted Exception!", e);
                     }
@@ -1160,10 +2279,10 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
         }
 
         public static void notifyCallbackReturn(boolean returnValue) {
-            synchronized (eventSink) {
+            synchronized (sCallbackLock) {
                 sCallbackReturnValue = returnValue;
                 sIsCallbackReturn = true;
-                eventSink.notifyAll();
+                sCallbackLock.notifyAll();
             }
         }
 
@@ -1173,22 +2292,21 @@ public class FlurryFlutterPlugin implements FlutterPlugin, MethodCallHandler, Ac
      * Wrapper Flurry Publisher Segmentation listener.
      */
     static class FlutterFlurryPublisherListener implements FlurryPublisherSegmentation.FetchListener {
-
-        private static EventChannel.EventSink eventSink;
-
-        FlutterFlurryPublisherListener(EventChannel.EventSink eventSink) {
-            FlutterFlurryPublisherListener.eventSink = eventSink;
-        }
+        private static final String SECTION_FETCHED = "Flurry:publisher:onFetched";
 
         @Override
         public void onFetched(final Map<String, String> map) {
-            // Run Flutter event channel on the UI main thread.
-            new Handler(Looper.getMainLooper()).post(new Runnable() {
-                @Override
-                public void run() {
-                    eventSink.success(map);
+            boolean traced = FlurryFlutterTracer.beginSection(SECTION_FETCHED);
+            try {
+                sPublisherFetcher.onFetched();
+                FlurryFlutterWarmStart warmStart = sWarmStart;
+                if (warmStart != null) {
+                    warmStart.putPublisherData(map);
                 }
-            });
+                sPublisherEventStream.send(map);
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
+            }
         }
 
     }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.os.SystemClock;
+
+import com.flurry.android.FlurryPublisherSegmentation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single-flight publisher segmentation fetch, with a freshness TTL.
+ *
+ * A fetch requested while another one is in flight is coalesced into it, and all the listeners
+ * get its onFetched result. A fetch requested within the TTL of the last fetched data is not
+ * sent; the cached data is delivered to the listeners instead. The SDK may silently throttle a
+ * fetch, so an in-flight fetch without a result is given up after a timeout.
+ */
+class FlurryFlutterPublisherFetcher {
+    static final long FETCH_TIMEOUT_MILLIS = 30000;
+
+    /**
+     * Receiver of the cached data on a TTL hit.
+     */
+    interface Listener {
+        void onFetched(Map<String, String> data);
+    }
+
+    private final Listener listener;
+
+    private long ttlMillis = 0;
+    private boolean inFlight = false;
+    private long fetchStart = 0;
+    private long lastFetched = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long coalescedCount = 0;
+
+    FlurryFlutterPublisherFetcher(Listener listener) {
+        this.listener = listener;
+    }
+
+    synchronized void setTtl(long ttlMillis) {
+        this.ttlMillis = Math.max(0, ttlMillis);
+    }
+
+    void fetch() {
+        Map<String, String> cached = null;
+        synchronized (this) {
+            long now = SystemClock.elapsedRealtime();
+            if (inFlight && now - fetchStart < FETCH_TIMEOUT_MILLIS) {
+                coalescedCount++;
+                return;
+            }
+
+            if (ttlMillis > 0 && lastFetched > 0 && now - lastFetched < ttlMillis
+                    && FlurryPublisherSegmentation.isFetchFinished()) {
+                hitCount++;
+                cached = FlurryPublisherSegmentation.getPublisherData();
+            } else {
+                missCount++;
+                inFlight = true;
+                fetchStart = now;
+            }
+        }
+
+        if (cached != null) {
+            listener.onFetched(cached);
+        } else {
+            boolean traced = FlurryFlutterTracer.beginSdkSection("FlurryPublisherSegmentation.fetch");
+            try {
+                FlurryPublisherSegmentation.fetch();
+            } finally {
+                FlurryFlutterTracer.endSection(traced);
+            }
+        }
+    }
+
+    /**
+     * Completes the in-flight fetch.
+     */
+    synchronized void onFetched() {
+        inFlight = false;
+        lastFetched = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Returns {"hits", "misses", "coalesced"} counts.
+     */
+    synchronized Map<String, Object> getCounts() {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("hits", hitCount);
+        counts.put("misses", missCount);
+        counts.put("coalesced", coalescedCount);
+        return counts;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import com.flurry.android.FlurryEvent;
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.Map;
+
+/**
+ * The Flurry SDK calls made by the plugin on its hot paths: event logging and config reads.
+ *
+ * The plugin uses {@link FlurryFlutterAgentSdk}, backed by FlurryAgent; a stand-in lets the
+ * plugin run without the SDK, e.g. to replay captured calls on a JVM. The calls pass through
+ * the {@link FlurryFlutterInterceptorChain} and the {@link FlurryFlutterDataBudget} first, a
+ * logging call returns a null status if either dropped the event. The calls that get through
+ * are exported by the {@link FlurryFlutterExportingSdk}, and traced by the
+ * {@link FlurryFlutterTracedSdk} right around the SDK.
+ */
+interface FlurryFlutterSdk {
+    FlurryEventRecordStatus logEvent(String eventId);
+
+    FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters);
+
+    FlurryEventRecordStatus logEvent(String eventId, boolean timed);
+
+    FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, boolean timed);
+
+    FlurryEventRecordStatus logEvent(String eventId, String timedId);
+
+    FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, String timedId);
+
+    FlurryEventRecordStatus logEvent(FlurryEvent event, FlurryEvent.Params params);
+
+    FlurryEventRecordStatus logPayment(String productName, String productId, int quantity, double price,
+                                       String currency, String transactionId, Map<String, String> parameters);
+
+    void endTimedEvent(String eventId);
+
+    void endTimedEvent(String eventId, Map<String, String> parameters);
+
+    void endTimedEvent(String eventId, String timedId);
+
+    void endTimedEvent(String eventId, Map<String, String> parameters, String timedId);
+
+    void onError(String errorId, String message, String errorClass);
+
+    void onError(String errorId, String message, String errorClass, Map<String, String> parameters);
+
+    void logBreadcrumb(String crashBreadcrumb);
+
+    String getConfigString(String key, String defaultValue);
+}
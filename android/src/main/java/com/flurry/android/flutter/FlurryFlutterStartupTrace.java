@@ -0,0 +1,147 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup cost of the plugin, from plugin attach through the first event successfully logged.
+ *
+ * Each phase records the monotonic time of its first start, and the total time spent in it.
+ * A phase can run several times, e.g. the builder configuration is the sum of all the with*
+ * calls. The phases also appear as android.os.Trace sections when tracing is enabled.
+ */
+class FlurryFlutterStartupTrace {
+    static final String PHASE_ATTACH = "attach";
+    static final String PHASE_CONFIGURE = "configure";
+    static final String PHASE_MESSAGING = "messaging";
+    static final String PHASE_BUILD = "build";
+    static final String PHASE_FIRST_EVENT = "firstEvent";
+
+    private static final String SECTION_PREFIX = "Flurry:startup:";
+
+    private static class Phase {
+        long startNanos;
+        long activeNanos;
+        long durationNanos;
+        int count;
+    }
+
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private long buildEndNanos = 0;
+    private volatile boolean complete = false;
+
+    /**
+     * Returns the startup phase of a plugin method call, or null.
+     */
+    String phaseOf(String method) {
+        if (complete) {
+            return null;
+        }
+
+        switch (method) {
+            case "initializeFlurryBuilder":
+                return PHASE_CONFIGURE;
+            case "withMessaging":
+                return PHASE_MESSAGING;
+            case "buildFlurryBuilder":
+                return PHASE_BUILD;
+            default:
+                return method.startsWith("with") ? PHASE_CONFIGURE : null;
+        }
+    }
+
+    /**
+     * Begins a phase, returns whether its trace section began.
+     */
+    synchronized boolean begin(String name) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_PREFIX + name);
+
+        long now = System.nanoTime();
+        Phase phase = phases.get(name);
+        if (phase == null) {
+            phase = new Phase();
+            phase.startNanos = now;
+            phases.put(name, phase);
+        }
+        phase.activeNanos = now;
+        return traced;
+    }
+
+    synchronized void end(String name, boolean traced) {
+        long now = System.nanoTime();
+        Phase phase = phases.get(name);
+        if (phase != null) {
+            phase.durationNanos += now - phase.activeNanos;
+            phase.count++;
+        }
+        if (PHASE_BUILD.equals(name)) {
+            buildEndNanos = now;
+        }
+
+        FlurryFlutterTracer.endSection(traced);
+    }
+
+    /**
+     * Ends the startup at the first event successfully logged after the agent build.
+     */
+    void onEventRecorded() {
+        if (complete) {
+            return;
+        }
+
+        synchronized (this) {
+            if (complete || buildEndNanos == 0) {
+                return;
+            }
+
+            Phase phase = new Phase();
+            phase.startNanos = buildEndNanos;
+            phase.durationNanos = System.nanoTime() - buildEndNanos;
+            phase.count = 1;
+            phases.put(PHASE_FIRST_EVENT, phase);
+            complete = true;
+        }
+    }
+
+    /**
+     * Returns the phases in the order they started, with their start relative to the first phase.
+     */
+    synchronized List<Map<String, Object>> getReport() {
+        long origin = Long.MAX_VALUE;
+        for (Phase phase : phases.values()) {
+            origin = Math.min(origin, phase.startNanos);
+        }
+
+        List<Map<String, Object>> report = new ArrayList<>(phases.size());
+        for (Map.Entry<String, Phase> entry : phases.entrySet()) {
+            Phase phase = entry.getValue();
+            Map<String, Object> item = new HashMap<>();
+            item.put("phase", entry.getKey());
+            item.put("startMicros", (phase.startNanos - origin) / 1000);
+            item.put("durationMicros", phase.durationNanos / 1000);
+            item.put("count", phase.count);
+            report.add(item);
+        }
+        return report;
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last-value cache of the idempotent agent state setters.
+ *
+ * A setter call with the same value as the last one sent is suppressed, and not forwarded to
+ * the Flurry SDK. Invalidating the cache forces the next call of every setter to be sent.
+ */
+class FlurryFlutterStateCache {
+
+    enum Setter {
+        UserId("setUserId"),
+        Age("setAge"),
+        Gender("setGender"),
+        VersionName("setVersionName"),
+        GppConsent("setGppConsent"),
+        DataSaleOptOut("setDataSaleOptOut"),
+        ReportLocation("setReportLocation");
+
+        private final String name;
+
+        Setter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final Setter[] SETTERS = Setter.values();
+
+    private final Object[] lastValues = new Object[SETTERS.length];
+    private final boolean[] known = new boolean[SETTERS.length];
+    private final long[] suppressedCounts = new long[SETTERS.length];
+
+    /**
+     * Returns true if the value has to be sent to the SDK, false if it is the same as the last one.
+     */
+    synchronized boolean shouldSend(Setter setter, Object value) {
+        int index = setter.ordinal();
+        if (known[index] && equal(lastValues[index], value)) {
+            suppressedCounts[index]++;
+            return false;
+        }
+
+        lastValues[index] = value;
+        known[index] = true;
+        return true;
+    }
+
+    /**
+     * Forgets the last values, the next call of every setter is sent to the SDK.
+     */
+    synchronized void invalidate() {
+        for (int i = 0; i < SETTERS.length; i++) {
+            lastValues[i] = null;
+            known[i] = false;
+        }
+    }
+
+    synchronized Map<String, Long> getSuppressedCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Setter setter : SETTERS) {
+            counts.put(setter.getName(), suppressedCounts[setter.ordinal()]);
+        }
+        return counts;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return (a == null) ? (b == null) : a.equals(b);
+    }
+
+}
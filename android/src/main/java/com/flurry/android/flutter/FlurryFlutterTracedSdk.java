@@ -0,0 +1,202 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import com.flurry.android.FlurryEvent;
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.Map;
+
+/**
+ * Wraps each Flurry SDK call in a trace section named after it, when tracing is enabled.
+ */
+class FlurryFlutterTracedSdk implements FlurryFlutterSdk {
+    private static final String SECTION_LOG_EVENT = "Flurry:sdk:logEvent";
+    private static final String SECTION_LOG_PAYMENT = "Flurry:sdk:logPayment";
+    private static final String SECTION_END_TIMED_EVENT = "Flurry:sdk:endTimedEvent";
+    private static final String SECTION_ON_ERROR = "Flurry:sdk:onError";
+    private static final String SECTION_LOG_BREADCRUMB = "Flurry:sdk:logBreadcrumb";
+    private static final String SECTION_GET_CONFIG_STRING = "Flurry:sdk:getConfigString";
+
+    private final FlurryFlutterSdk sdk;
+
+    FlurryFlutterTracedSdk(FlurryFlutterSdk sdk) {
+        this.sdk = sdk;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_EVENT);
+        try {
+            return sdk.logEvent(eventId);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_EVENT);
+        try {
+            return sdk.logEvent(eventId, parameters);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, boolean timed) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_EVENT);
+        try {
+            return sdk.logEvent(eventId, timed);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, boolean timed) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_EVENT);
+        try {
+            return sdk.logEvent(eventId, parameters, timed);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, String timedId) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_EVENT);
+        try {
+            return sdk.logEvent(eventId, timedId);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, String timedId) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_EVENT);
+        try {
+            return sdk.logEvent(eventId, parameters, timedId);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(FlurryEvent event, FlurryEvent.Params params) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_EVENT);
+        try {
+            return sdk.logEvent(event, params);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public FlurryEventRecordStatus logPayment(String productName, String productId, int quantity, double price,
+                                              String currency, String transactionId, Map<String, String> parameters) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_PAYMENT);
+        try {
+            return sdk.logPayment(productName, productId, quantity, price, currency, transactionId, parameters);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public void endTimedEvent(String eventId) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_END_TIMED_EVENT);
+        try {
+            sdk.endTimedEvent(eventId);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_END_TIMED_EVENT);
+        try {
+            sdk.endTimedEvent(eventId, parameters);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, String timedId) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_END_TIMED_EVENT);
+        try {
+            sdk.endTimedEvent(eventId, timedId);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_END_TIMED_EVENT);
+        try {
+            sdk.endTimedEvent(eventId, parameters, timedId);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_ON_ERROR);
+        try {
+            sdk.onError(errorId, message, errorClass);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_ON_ERROR);
+        try {
+            sdk.onError(errorId, message, errorClass, parameters);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public void logBreadcrumb(String crashBreadcrumb) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_LOG_BREADCRUMB);
+        try {
+            sdk.logBreadcrumb(crashBreadcrumb);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+    @Override
+    public String getConfigString(String key, String defaultValue) {
+        boolean traced = FlurryFlutterTracer.beginSection(SECTION_GET_CONFIG_STRING);
+        try {
+            return sdk.getConfigString(key, defaultValue);
+        } finally {
+            FlurryFlutterTracer.endSection(traced);
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.flurry.android.flutter;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional android.os.Trace sections for the plugin work, off by default.
+ *
+ * Besides the plain sections, async sections follow an event across threads, from the SDK
+ * callback that sends it to its delivery on the UI main thread. The sections go to a
+ * {@link Sink}, android.os.Trace unless replaced in tests. A section is only ended if it began,
+ * tracing may be toggled in between.
+ */
+final class FlurryFlutterTracer {
+    private static final String CALL_SECTION_PREFIX = "Flurry:call:";
+    private static final String SDK_SECTION_PREFIX = "Flurry:sdk:";
+
+    /**
+     * Receiver of the trace sections.
+     */
+    interface Sink {
+        void beginSection(String name);
+
+        void endSection();
+
+        void beginAsyncSection(String name, int cookie);
+
+        void endAsyncSection(String name, int cookie);
+    }
+
+    private static final Sink SYSTEM_SINK = new Sink() {
+        @Override
+        public void beginSection(String name) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                Trace.beginSection(name);
+            }
+        }
+
+        @Override
+        public void endSection() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                Trace.endSection();
+            }
+        }
+
+        @Override
+        public void beginAsyncSection(String name, int cookie) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                Trace.beginAsyncSection(name, cookie);
+            }
+        }
+
+        @Override
+        public void endAsyncSection(String name, int cookie) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                Trace.endAsyncSection(name, cookie);
+            }
+        }
+    };
+
+    private static volatile boolean sEnabled = false;
+    private static volatile Sink sSink = SYSTEM_SINK;
+    private static final AtomicInteger sNextCookie = new AtomicInteger();
+    // Section names per method, the method names are the fixed set of the channel.
+    private static final ConcurrentHashMap<String, String> sCallSections = new ConcurrentHashMap<>();
+    // Section names per Flurry SDK method, a fixed set too.
+    private static final ConcurrentHashMap<String, String> sSdkSections = new ConcurrentHashMap<>();
+
+    private FlurryFlutterTracer() {
+    }
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Replaces android.os.Trace, or restores it if null.
+     */
+    @VisibleForTesting
+    static void setSink(Sink sink) {
+        sSink = (sink != null) ? sink : SYSTEM_SINK;
+    }
+
+    /**
+     * Begins a section if tracing is enabled.
+     *
+     * @return whether the section began, to pass to {@link #endSection(boolean)}.
+     */
+    static boolean beginSection(String name) {
+        if (!sEnabled) {
+            return false;
+        }
+
+        sSink.beginSection(name);
+        return true;
+    }
+
+    static void endSection(boolean began) {
+        if (began) {
+            sSink.endSection();
+        }
+    }
+
+    /**
+     * Begins the section of a plugin method call.
+     */
+    static boolean beginCallSection(String method) {
+        return sEnabled && beginSection(sectionName(sCallSections, CALL_SECTION_PREFIX, method));
+    }
+
+    /**
+     * Begins the section of a Flurry SDK call.
+     */
+    static boolean beginSdkSection(String method) {
+        return sEnabled && beginSection(sectionName(sSdkSections, SDK_SECTION_PREFIX, method));
+    }
+
+    private static String sectionName(ConcurrentHashMap<String, String> names, String prefix, String method) {
+        String name = names.get(method);
+        if (name == null) {
+            name = prefix + method;
+            names.put(method, name);
+        }
+        return name;
+    }
+
+    /**
+     * Begins an async section, possibly ended on another thread.
+     *
+     * @return the cookie to end the section with, 0 if tracing is disabled.
+     */
+    static int beginAsyncSection(String name) {
+        if (!sEnabled) {
+            return 0;
+        }
+
+        int cookie = sNextCookie.incrementAndGet();
+        if (cookie == 0) {
+            cookie = sNextCookie.incrementAndGet();
+        }
+        sSink.beginAsyncSection(name, cookie);
+        return cookie;
+    }
+
+    static void endAsyncSection(String name, int cookie) {
+        if (cookie != 0) {
+            sSink.endAsyncSection(name, cookie);
+        }
+    }
+
+}
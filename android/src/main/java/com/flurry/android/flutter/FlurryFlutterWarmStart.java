@@ -0,0 +1,309 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.flurry.android.flutter;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Last-known Flurry Config values and publisher data, kept across app launches.
+ *
+ * Until the SDK activates a config, it only returns the default values, and until it fetches
+ * the publisher data, it returns an empty map. The snapshot of the last launch is memory-mapped
+ * and decoded when the plugin attaches, so that the first reads from Dart get the last-known
+ * values instead. The SDK config activation and publisher data fetch still reach Dart as the
+ * usual listener callbacks, and the snapshot is updated from them.
+ *
+ * The config keys are the ones read from Dart, there is no way to list them from the SDK. The
+ * snapshot is rewritten to a temporary file and renamed over the previous one on a background
+ * thread, a moment after it changes, and when the app goes to the background.
+ *
+ * File layout: a header of magic, version and payload length ints and the save time long, then
+ * the {"config": {key: value}, "publisher": {key: value}} payload in
+ * {@link FlurryFlutterEventLogCodec} encoding.
+ */
+class FlurryFlutterWarmStart implements FlurryFlutterLifecycle.Flushable {
+    private static final String TAG = "FlurryFlutterWarmStart";
+
+    static final int MAGIC = 0x46575354;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 20;
+    static final int MAX_FILE_BYTES = 256 * 1024;
+    static final int MAX_CONFIG_KEYS = 256;
+    static final long SAVE_DELAY_MILLIS = 1000;
+
+    private final File file;
+    private final Handler background;
+    private final Runnable saveTask = new Runnable() {
+        @Override
+        public void run() {
+            save();
+        }
+    };
+
+    // Config values by key, a null value for a key read before the activation, to be
+    // snapshotted on the activation.
+    private final Map<String, String> config = new HashMap<>();
+    private Map<String, String> publisherData = Collections.emptyMap();
+    private long loadedSavedMillis = 0;
+    private boolean configActivated = false;
+    private boolean dirty = false;
+    private boolean saveScheduled = false;
+    private long configHits = 0;
+    private long publisherHits = 0;
+
+    FlurryFlutterWarmStart(File file, Handler background) {
+        this.file = file;
+        this.background = background;
+    }
+
+    /**
+     * Opens the snapshot file, and loads the snapshot of the last launch if any.
+     */
+    static FlurryFlutterWarmStart open(File file) {
+        HandlerThread thread = new HandlerThread("FlurryFlutterWarmStart");
+        thread.start();
+        FlurryFlutterWarmStart warmStart = new FlurryFlutterWarmStart(file, new Handler(thread.getLooper()));
+        warmStart.load();
+        return warmStart;
+    }
+
+    /**
+     * Returns the last-known value of the config key while no config is activated, or null.
+     */
+    synchronized String getConfig(String key) {
+        if (configActivated) {
+            return null;
+        }
+
+        String value = config.get(key);
+        if (value != null) {
+            configHits++;
+        }
+        return value;
+    }
+
+    /**
+     * Records the value of a config key read from the SDK. Before the activation, the key is
+     * only remembered, the SDK returns the default value.
+     */
+    synchronized void putConfig(String key, String value) {
+        if (!config.containsKey(key) && config.size() >= MAX_CONFIG_KEYS) {
+            return;
+        }
+        if (!configActivated) {
+            if (!config.containsKey(key)) {
+                config.put(key, null);
+            }
+            return;
+        }
+
+        String previous = config.put(key, value);
+        if ((previous == null) ? (value != null) : !previous.equals(value)) {
+            changed();
+        }
+    }
+
+    /**
+     * Stops serving the snapshot config values, and returns the keys to read again from the
+     * activated config.
+     */
+    synchronized List<String> onConfigActivated() {
+        configActivated = true;
+        return new ArrayList<>(config.keySet());
+    }
+
+    /**
+     * Returns the last-known publisher data, or an empty map.
+     */
+    synchronized Map<String, String> getPublisherData() {
+        if (!publisherData.isEmpty()) {
+            publisherHits++;
+        }
+        return publisherData;
+    }
+
+    synchronized void putPublisherData(Map<String, String> data) {
+        if (data == null || data.equals(publisherData)) {
+            return;
+        }
+
+        publisherData = Collections.unmodifiableMap(new HashMap<>(data));
+        changed();
+    }
+
+    /**
+     * Returns {"savedMillis": save time of the loaded snapshot or 0, "configKeys", "publisherKeys",
+     * "configActivated", "configHits", "publisherHits"}.
+     */
+    synchronized Map<String, Object> getInfo() {
+        int configKeys = 0;
+        for (String value : config.values()) {
+            if (value != null) {
+                configKeys++;
+            }
+        }
+
+        Map<String, Object> info = new HashMap<>();
+        info.put("savedMillis", loadedSavedMillis);
+        info.put("configKeys", configKeys);
+        info.put("publisherKeys", publisherData.size());
+        info.put("configActivated", configActivated);
+        info.put("configHits", configHits);
+        info.put("publisherHits", publisherHits);
+        return info;
+    }
+
+    /**
+     * Saves the pending changes on the background thread.
+     */
+    @Override
+    public synchronized void flush() {
+        if (!dirty) {
+            return;
+        }
+
+        background.removeCallbacks(saveTask);
+        saveScheduled = true;
+        background.post(saveTask);
+    }
+
+    private void changed() {
+        dirty = true;
+        if (!saveScheduled) {
+            saveScheduled = true;
+            background.postDelayed(saveTask, SAVE_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Writes the snapshot, on the background thread.
+     */
+    void save() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            saveScheduled = false;
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+
+            Map<String, String> configValues = new HashMap<>();
+            for (Map.Entry<String, String> entry : config.entrySet()) {
+                if (entry.getValue() != null) {
+                    configValues.put(entry.getKey(), entry.getValue());
+                }
+            }
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("config", configValues);
+            snapshot.put("publisher", publisherData);
+
+            buffer = ByteBuffer.allocate(1024);
+            buffer.position(HEADER_SIZE);
+            buffer = FlurryFlutterEventLogCodec.writeValue(buffer, snapshot);
+        }
+
+        int length = buffer.position();
+        if (length > MAX_FILE_BYTES) {
+            Log.w(TAG, "Warm start snapshot too large, not saved: " + length + " bytes.");
+            return;
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, length - HEADER_SIZE);
+        buffer.putLong(12, System.currentTimeMillis());
+
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            FileOutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(buffer.array(), 0, length);
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot rename " + temp + " to " + file);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write the warm start snapshot.", e);
+        }
+    }
+
+    private synchronized void load() {
+        if (!file.isFile()) {
+            return;
+        }
+
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                long size = raf.length();
+                if (size < HEADER_SIZE || size > MAX_FILE_BYTES) {
+                    return;
+                }
+
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                        || buffer.getInt(8) != size - HEADER_SIZE) {
+                    return;
+                }
+
+                buffer.position(HEADER_SIZE);
+                Object snapshot = FlurryFlutterEventLogCodec.readValue(buffer);
+                if (!(snapshot instanceof Map)) {
+                    return;
+                }
+                config.putAll(strings(((Map<?, ?>) snapshot).get("config")));
+                publisherData = Collections.unmodifiableMap(strings(((Map<?, ?>) snapshot).get("publisher")));
+                loadedSavedMillis = buffer.getLong(12);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Failed to read the warm start snapshot.", e);
+        }
+    }
+
+    private static Map<String, String> strings(Object value) {
+        Map<String, String> strings = new HashMap<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+                    strings.put((String) entry.getKey(), (String) entry.getValue());
+                }
+            }
+        }
+        return strings;
+    }
+
+}
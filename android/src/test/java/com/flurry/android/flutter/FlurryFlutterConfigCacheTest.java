@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class FlurryFlutterConfigCacheTest {
+    private final Map<String, String> config = new HashMap<>();
+    private int reads = 0;
+    private final FlurryFlutterConfigCache cache = new FlurryFlutterConfigCache(
+            new FlurryFlutterConfigCache.Source() {
+                @Override
+                public String getString(String key) {
+                    reads++;
+                    return config.get(key);
+                }
+            });
+
+    @Test
+    public void parsesTypedValuesOnce() {
+        config.put("retries", " 3 ");
+        config.put("ratio", "0.25");
+        config.put("enabled", "TRUE");
+        config.put("name", "blue");
+
+        assertEquals(3L, cache.get("retries", FlurryFlutterConfigCache.TYPE_LONG));
+        assertEquals(3L, cache.get("retries", FlurryFlutterConfigCache.TYPE_LONG));
+        assertEquals(3.0, cache.get("retries", FlurryFlutterConfigCache.TYPE_DOUBLE));
+        assertEquals(0.25, cache.get("ratio", FlurryFlutterConfigCache.TYPE_DOUBLE));
+        assertEquals(Boolean.TRUE, cache.get("enabled", FlurryFlutterConfigCache.TYPE_BOOLEAN));
+        assertNull(cache.get("name", FlurryFlutterConfigCache.TYPE_LONG));
+        assertNull(cache.get("name", FlurryFlutterConfigCache.TYPE_BOOLEAN));
+        assertNull(cache.get("missing", FlurryFlutterConfigCache.TYPE_LONG));
+        assertNull(cache.getHash("missing"));
+
+        assertEquals(5, reads);
+        assertEquals(2L, cache.getCounts().get("parseErrors"));
+    }
+
+    @Test
+    public void invalidatesOnActivation() {
+        config.put("retries", "3");
+        Long hash = cache.getHash("retries");
+        assertEquals(3L, cache.get("retries", FlurryFlutterConfigCache.TYPE_LONG));
+
+        config.put("retries", "5");
+        assertEquals(3L, cache.get("retries", FlurryFlutterConfigCache.TYPE_LONG));
+        cache.invalidate();
+        assertEquals(5L, cache.get("retries", FlurryFlutterConfigCache.TYPE_LONG));
+        assertFalse(hash.equals(cache.getHash("retries")));
+        assertEquals(2, reads);
+    }
+
+    @Test
+    public void trimsLeastRecentlyUsedValues() {
+        for (int i = 0; i < 10; i++) {
+            config.put("key" + i, String.valueOf(i));
+            cache.get("key" + i, FlurryFlutterConfigCache.TYPE_LONG);
+        }
+        cache.get("key0", FlurryFlutterConfigCache.TYPE_LONG);
+
+        assertEquals(5, cache.trim(FlurryFlutterMemoryTrimmer.LEVEL_SHRINK));
+        cache.get("key0", FlurryFlutterConfigCache.TYPE_LONG);
+        assertEquals(10, reads);
+        assertEquals(5, cache.trim(FlurryFlutterMemoryTrimmer.LEVEL_RELEASE));
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.flurry.android.FlurryEventRecordStatus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the byte estimates, the totals, and the budget enforcement.
+ */
+public class FlurryFlutterDataBudgetTest {
+
+    private final FlurryFlutterStandInSdk sdk = new FlurryFlutterStandInSdk();
+    private final List<String> exceeded = new ArrayList<>();
+    private final FlurryFlutterDataBudget budget = new FlurryFlutterDataBudget(sdk,
+            new FlurryFlutterDataBudget.Notifier() {
+                @Override
+                public void onBudgetExceeded(String eventClass, long usedBytes, long dailyBytes) {
+                    assertFalse(Thread.holdsLock(budget));
+                    exceeded.add(eventClass);
+                }
+            });
+
+    @Test
+    public void estimatesUtf8Sizes() {
+        assertEquals(FlurryFlutterDataBudget.EVENT_OVERHEAD_BYTES + 6, FlurryFlutterDataBudget.estimate("Search", null));
+        assertEquals(FlurryFlutterDataBudget.EVENT_OVERHEAD_BYTES + 6 + FlurryFlutterDataBudget.PARAMETER_OVERHEAD_BYTES + 1 + 5,
+                FlurryFlutterDataBudget.estimate("Search", Collections.singletonMap("q", "caf\u00e9")));
+        assertEquals(4, FlurryFlutterDataBudget.utf8Length("\ud83d\ude00"));
+    }
+
+    @Test
+    public void totalsBytesPerEvent() {
+        budget.logEvent("Search");
+        budget.logEvent("Search");
+        budget.logEvent("Scroll");
+
+        Map<String, Object> usage = budget.getUsage();
+        Map<?, ?> events = (Map<?, ?>) usage.get("events");
+        assertEquals((long) 2 * FlurryFlutterDataBudget.estimate("Search", null), events.get("Search"));
+        assertEquals((long) FlurryFlutterDataBudget.estimate("Scroll", null), events.get("Scroll"));
+        assertEquals(1, ((Map<?, ?>) usage.get("days")).size());
+    }
+
+    @Test
+    public void dropsLowPriorityEventsOverBudget() {
+        int size = FlurryFlutterDataBudget.estimate("Debug.Tick", null);
+        budget.setBudget("debug", Arrays.asList("Debug.*"), 3 * size, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(budget.logEvent("Debug.Tick"));
+        }
+        assertNull(budget.logEvent("Debug.Tick"));
+        assertNull(budget.logEvent("Debug.Tick"));
+        assertNotNull(budget.logEvent("Search"));
+        assertNotNull(budget.logPayment("Gems", "gems.100", 1, 0.99, "USD", "GPA.1", null));
+
+        assertEquals(3, sdk.getCount("logEvent") - 1);
+        assertEquals(Collections.singletonList("debug"), exceeded);
+        Map<?, ?> debug = (Map<?, ?>) ((Map<?, ?>) budget.getUsage().get("classes")).get("debug");
+        assertEquals(2L, debug.get("dropped"));
+    }
+
+    @Test
+    public void samplesEventsOverBudget() {
+        budget.setBudget("debug", Collections.singletonList("Debug.Tick"), 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(budget.logEvent("Debug.Tick"));
+        }
+        Map<?, ?> debug = (Map<?, ?>) ((Map<?, ?>) budget.getUsage().get("classes")).get("debug");
+        assertEquals(10L, debug.get("sampled"));
+        assertEquals(Collections.singletonList("debug"), exceeded);
+    }
+
+    @Test
+    public void accountsOnlyTheEventsTheSdkRecords() {
+        FlurryFlutterDataBudget budget = new FlurryFlutterDataBudget(new FlurryFlutterStandInSdk() {
+            @Override
+            public FlurryEventRecordStatus logEvent(String eventId) {
+                return FlurryEventRecordStatus.kFlurryEventFailed;
+            }
+        }, null);
+        int size = FlurryFlutterDataBudget.estimate("Debug.Tick", null);
+        budget.setBudget("debug", Arrays.asList("Debug.*"), size, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FlurryEventRecordStatus.kFlurryEventFailed, budget.logEvent("Debug.Tick"));
+        }
+        Map<String, Object> usage = budget.getUsage();
+        assertEquals(0, ((Map<?, ?>) usage.get("events")).size());
+        Map<?, ?> debug = (Map<?, ?>) ((Map<?, ?>) usage.get("classes")).get("debug");
+        assertEquals(0L, debug.get("usedBytes"));
+        assertEquals(0L, debug.get("dropped"));
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Activity;
+import android.app.Application;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks when the route engagement summaries are reported, and what they count.
+ */
+public class FlurryFlutterEngagementTest {
+
+    private final List<Map<String, String>> reports = new ArrayList<>();
+    private final FlurryFlutterLifecycle lifecycle = new FlurryFlutterLifecycle();
+    private final Activity activity = new Activity() {
+        @Override
+        public Application getApplication() {
+            return null;
+        }
+    };
+    private long now = 1000;
+    private final FlurryFlutterEngagement engagement = new FlurryFlutterEngagement(lifecycle,
+            new FlurryFlutterEngagement.Reporter() {
+                @Override
+                public void report(String eventId, Map<String, String> parameters) {
+                    assertEquals(FlurryFlutterEngagement.EVENT_ID, eventId);
+                    reports.add(parameters);
+                }
+            },
+            new FlurryFlutterEngagement.Clock() {
+                @Override
+                public long elapsedRealtime() {
+                    return now;
+                }
+            });
+
+    {
+        lifecycle.addPausable(engagement);
+        lifecycle.addResumable(engagement);
+        lifecycle.attach(activity);
+    }
+
+    @Test
+    public void reportsEachRouteOnceAtSessionEnd() {
+        engagement.enter("home");
+        engagement.exit("home");
+        engagement.enter("cart");
+        engagement.exit("cart");
+        engagement.enter("home");
+        assertEquals(0, reports.size());
+
+        engagement.pause();
+        Map<String, String> visits = new HashMap<>();
+        for (Map<String, String> report : reports) {
+            visits.put(report.get(FlurryFlutterEngagement.PARAM_ROUTE), report.get(FlurryFlutterEngagement.PARAM_VISITS));
+        }
+        assertEquals(2, reports.size());
+        assertEquals("2", visits.get("home"));
+        assertEquals("1", visits.get("cart"));
+
+        // The next session counts from zero.
+        reports.clear();
+        engagement.exit("home");
+        engagement.enter("home");
+        engagement.pause();
+        assertEquals(1, reports.size());
+        assertEquals("home", reports.get(0).get(FlurryFlutterEngagement.PARAM_ROUTE));
+        assertEquals("1", reports.get(0).get(FlurryFlutterEngagement.PARAM_VISITS));
+    }
+
+    @Test
+    public void accountsRoutesPastTheLimitTogether() {
+        for (int i = 0; i < FlurryFlutterEngagement.MAX_ROUTES + 10; i++) {
+            engagement.enter("item/" + i);
+            engagement.exit("item/" + i);
+        }
+        engagement.pause();
+
+        assertEquals(FlurryFlutterEngagement.MAX_ROUTES + 1, reports.size());
+        for (Map<String, String> report : reports) {
+            if (FlurryFlutterEngagement.OTHER_ROUTES.equals(report.get(FlurryFlutterEngagement.PARAM_ROUTE))) {
+                assertEquals("10", report.get(FlurryFlutterEngagement.PARAM_VISITS));
+            }
+        }
+    }
+
+    @Test
+    public void countsTheEngagedTimeOnlyInTheForeground() {
+        engagement.enter("home");
+        now += 2000;
+        lifecycle.onActivityStopped(activity);
+        assertEquals(1, reports.size());
+        assertEquals("2000", reports.get(0).get(FlurryFlutterEngagement.PARAM_ENGAGED));
+
+        // The route stays on screen, and counts again once the app is back.
+        reports.clear();
+        now += 60000;
+        lifecycle.onActivityStarted(activity);
+        now += 500;
+        engagement.exit("home");
+        lifecycle.onActivityStopped(activity);
+        assertEquals(1, reports.size());
+        assertEquals("500", reports.get(0).get(FlurryFlutterEngagement.PARAM_ENGAGED));
+        assertEquals("0", reports.get(0).get(FlurryFlutterEngagement.PARAM_VISITS));
+    }
+
+    @Test
+    public void reportsARouteOnExitPastTheThreshold() {
+        engagement.setThreshold(1000);
+        engagement.enter("feed");
+        now += 1500;
+        engagement.exit("feed");
+        engagement.enter("cart");
+        now += 200;
+        engagement.exit("cart");
+
+        assertEquals(1, reports.size());
+        assertEquals("feed", reports.get(0).get(FlurryFlutterEngagement.PARAM_ROUTE));
+        assertEquals("1500", reports.get(0).get(FlurryFlutterEngagement.PARAM_ENGAGED));
+    }
+
+    @Test
+    public void keepsCountingThroughAMemoryTrim() {
+        engagement.enter("home");
+        now += 1000;
+        new FlurryFlutterMemoryTrimmer(lifecycle).trim(FlurryFlutterMemoryTrimmer.LEVEL_RELEASE, 80);
+        assertEquals(0, reports.size());
+
+        now += 1000;
+        lifecycle.onActivityStopped(activity);
+        assertEquals(1, reports.size());
+        assertEquals("1", reports.get(0).get(FlurryFlutterEngagement.PARAM_VISITS));
+        assertEquals("2000", reports.get(0).get(FlurryFlutterEngagement.PARAM_ENGAGED));
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the error fingerprints, and what the windows report.
+ */
+public class FlurryFlutterErrorFilterTest {
+
+    private final List<String> reports = new ArrayList<>();
+    private final FlurryFlutterErrorFilter filter = new FlurryFlutterErrorFilter(new FlurryFlutterErrorFilter.Reporter() {
+        @Override
+        public void report(String errorId, String message, String errorClass, Map<String, String> parameters) {
+            assertFalse(Thread.holdsLock(filter));
+            String occurrences = (parameters != null) ? parameters.get(FlurryFlutterErrorFilter.PARAM_OCCURRENCES) : null;
+            reports.add((occurrences != null) ? errorId + " x" + occurrences : errorId);
+        }
+    });
+
+    @Test
+    public void normalizesTheVaryingParts() {
+        StringBuilder sb = new StringBuilder();
+        FlurryFlutterErrorFilter.normalize("  Index 42 out of\tbounds at 0x7f3a2c10,  length 7", sb);
+        assertEquals("Index # out of bounds at #, length #", sb.toString());
+
+        assertEquals(FlurryFlutterErrorFilter.fingerprint("Crash", "timeout after 3000 ms", "IOException"),
+                FlurryFlutterErrorFilter.fingerprint("Crash", "timeout after 15 ms", "IOException"));
+        assertFalse(FlurryFlutterErrorFilter.fingerprint("Crash", "timeout", "IOException")
+                .equals(FlurryFlutterErrorFilter.fingerprint("Crash", "timeout", "StateError")));
+    }
+
+    @Test
+    public void countsTheRepeatsWithinTheWindow() {
+        filter.configure(true, 60000, 16);
+        filter.onError("Crash", "item 1 missing", "StateError", null);
+        filter.onError("Crash", "item 2 missing", "StateError", null);
+        filter.onError("Crash", "item 3 missing", "StateError", null);
+        filter.onError("Net", "offline", "IOException", null);
+        assertEquals(2, filter.getSuppressedCount());
+
+        filter.flush();
+        filter.flush();
+        assertEquals(3, reports.size());
+        assertEquals("Crash", reports.get(0));
+        assertEquals("Net", reports.get(1));
+        assertEquals("Crash x2", reports.get(2));
+    }
+
+    @Test
+    public void closesTheWindowOfAnEvictedFingerprint() {
+        filter.configure(true, 60000, 1);
+        filter.onError("Crash", "boom", "StateError", null);
+        filter.onError("Crash", "boom", "StateError", null);
+        filter.onError("Net", "offline", "IOException", null);
+
+        assertEquals(3, reports.size());
+        assertEquals("Crash x1", reports.get(1));
+        assertEquals("Net", reports.get(2));
+    }
+
+    @Test
+    public void letsTheReporterLogErrors() {
+        final List<String> nested = new ArrayList<>();
+        final FlurryFlutterErrorFilter[] holder = new FlurryFlutterErrorFilter[1];
+        holder[0] = new FlurryFlutterErrorFilter(new FlurryFlutterErrorFilter.Reporter() {
+            @Override
+            public void report(String errorId, String message, String errorClass, Map<String, String> parameters) {
+                nested.add(errorId);
+                if (errorId.equals("Crash")) {
+                    holder[0].onError("Reporter", "failed", "StateError", null);
+                }
+            }
+        });
+        holder[0].configure(true, 60000, 16);
+        holder[0].onError("Crash", "boom", "StateError", null);
+        holder[0].onError("Crash", "boom", "StateError", null);
+        holder[0].onError("Net", "offline", "IOException", null);
+
+        holder[0].flush();
+        // The last one repeats the first error of the reporter.
+        assertEquals("[Crash, Reporter, Net, Crash]", nested.toString());
+        assertEquals(2, holder[0].getSuppressedCount());
+    }
+
+    @Test
+    public void reportsEverythingWhenDisabled() {
+        filter.onError("Crash", "boom", "StateError", null);
+        filter.onError("Crash", "boom", "StateError", null);
+        assertEquals(2, reports.size());
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+
+import com.flurry.android.FlurryEventRecordStatus;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * Checks the counts per status and per event, and the bound on the event ids.
+ */
+public class FlurryFlutterEventCountersTest {
+
+    private final FlurryFlutterEventCounters counters = new FlurryFlutterEventCounters();
+
+    @Test
+    public void countsPerEventAndStatus() {
+        int recorded = FlurryEventRecordStatus.kFlurryEventRecorded.ordinal();
+        counters.record("Level", recorded);
+        counters.record("Level", recorded);
+        counters.record("Level", FlurryFlutterEventCounters.STATUS_DROPPED);
+
+        assertEquals(2, counters.getCount("Level", true));
+        assertEquals(3, counters.getCount("Level", false));
+        counters.reset("Level");
+        assertEquals(0, counters.getCount("Level", false));
+    }
+
+    @Test
+    public void countsTheEventsPastTheBoundTogether() {
+        int failed = FlurryEventRecordStatus.kFlurryEventUniqueCountExceeded.ordinal();
+        for (int i = 0; i < FlurryFlutterEventCounters.MAX_EVENT_IDS + 10; i++) {
+            counters.record("item/" + i, failed);
+        }
+
+        Map<?, ?> events = (Map<?, ?>) counters.snapshot().get("events");
+        assertEquals(FlurryFlutterEventCounters.MAX_EVENT_IDS + 1, events.size());
+        assertEquals(10L, events.get(FlurryFlutterEventCounters.OTHER_EVENTS));
+        assertEquals(10, counters.getCount(FlurryFlutterEventCounters.OTHER_EVENTS, false));
+    }
+
+}
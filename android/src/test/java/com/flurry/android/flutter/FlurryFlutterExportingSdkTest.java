@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class FlurryFlutterExportingSdkTest {
+    private final List<String> methods = new ArrayList<>();
+    private final List<Map<?, ?>> arguments = new ArrayList<>();
+    private final FlurryFlutterExportingSdk exportingSdk = new FlurryFlutterExportingSdk(new FlurryFlutterStandInSdk());
+
+    {
+        exportingSdk.addExporter(new FlurryFlutterEventExporter() {
+            @Override
+            public void export(long timestampMillis, String method, Object args) {
+                methods.add(method);
+                arguments.add((Map<?, ?>) args);
+            }
+        });
+    }
+
+    @Test
+    public void exportsTheForwardedArguments() {
+        exportingSdk.logEvent("Search", Collections.singletonMap("q", "shoes"), "search-1");
+        exportingSdk.endTimedEvent("Search", "search-1");
+
+        assertEquals(2, methods.size());
+        assertEquals("logEvent", methods.get(0));
+        assertEquals("Search", arguments.get(0).get("eventId"));
+        assertEquals(Collections.singletonMap("q", "shoes"), arguments.get(0).get("parameters"));
+        assertEquals("search-1", arguments.get(0).get("timedId"));
+        assertEquals("endTimedEvent", methods.get(1));
+    }
+
+    @Test
+    public void doesNotExportTheDroppedEvents() {
+        FlurryFlutterDataBudget budget = new FlurryFlutterDataBudget(exportingSdk,
+                new FlurryFlutterDataBudget.Notifier() {
+                    @Override
+                    public void onBudgetExceeded(String eventClass, long usedBytes, long dailyBytes) {
+                    }
+                });
+        budget.setBudget("debug", Collections.singletonList("Debug.*"), 1, 0);
+
+        assertNull(budget.logEvent("Debug.Tick"));
+        budget.logEvent("Search");
+
+        assertEquals(1, methods.size());
+        assertEquals("Search", arguments.get(0).get("eventId"));
+    }
+
+}
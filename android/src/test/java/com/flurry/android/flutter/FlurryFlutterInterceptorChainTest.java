@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.flurry.android.FlurryEventRecordStatus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs events through interceptor chains in front of a recording stand-in SDK.
+ */
+public class FlurryFlutterInterceptorChainTest {
+
+    private static final class RecordingSdk extends FlurryFlutterStandInSdk {
+        final List<String> eventIds = new ArrayList<>();
+        final List<Map<String, String>> parameters = new ArrayList<>();
+
+        @Override
+        public FlurryEventRecordStatus logEvent(String eventId) {
+            return logEvent(eventId, Collections.<String, String>emptyMap());
+        }
+
+        @Override
+        public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters) {
+            this.eventIds.add(eventId);
+            this.parameters.add(parameters);
+            return super.logEvent(eventId, parameters);
+        }
+    }
+
+    private static final FlurryFlutterEventInterceptor DROP_TEST_EVENTS = new FlurryFlutterEventInterceptor() {
+        @Override
+        public boolean intercept(Event event) {
+            return !event.getId().startsWith("test.");
+        }
+    };
+
+    private static final FlurryFlutterEventInterceptor ADD_BUILD_ID = new FlurryFlutterEventInterceptor() {
+        @Override
+        public boolean intercept(Event event) {
+            event.putParameter("build", "42");
+            return true;
+        }
+    };
+
+    private static final FlurryFlutterEventInterceptor LOWER_CASE_IDS = new FlurryFlutterEventInterceptor() {
+        @Override
+        public boolean intercept(Event event) {
+            event.setId(event.getId().toLowerCase());
+            return true;
+        }
+    };
+
+    private final RecordingSdk sdk = new RecordingSdk();
+    private final FlurryFlutterInterceptorChain chain = new FlurryFlutterInterceptorChain(sdk);
+
+    @Test
+    public void passesEventsThroughWithoutInterceptors() {
+        assertEquals(FlurryEventRecordStatus.kFlurryEventRecorded, chain.logEvent("Search"));
+        assertEquals(Collections.singletonList("Search"), sdk.eventIds);
+    }
+
+    @Test
+    public void rewritesEventsInChainOrder() {
+        chain.add("lowerCase", LOWER_CASE_IDS);
+        chain.add("buildId", ADD_BUILD_ID);
+
+        Map<String, String> parameters = Collections.singletonMap("query", "shoes");
+        chain.logEvent("Search", parameters);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("query", "shoes");
+        expected.put("build", "42");
+        assertEquals(Collections.singletonList("search"), sdk.eventIds);
+        assertEquals(Collections.singletonList(expected), sdk.parameters);
+        // The caller's parameters are not modified.
+        assertEquals(Collections.singletonMap("query", "shoes"), parameters);
+    }
+
+    @Test
+    public void shortCircuitsDroppedEvents() {
+        chain.add("dropTests", DROP_TEST_EVENTS);
+        chain.add("buildId", ADD_BUILD_ID);
+
+        assertNull(chain.logEvent("test.Search"));
+        chain.logEvent("Search");
+
+        assertEquals(Collections.singletonList("Search"), sdk.eventIds);
+        assertEquals(Collections.singletonList(Collections.singletonMap("build", "42")), sdk.parameters);
+        List<Map<String, Object>> counts = chain.getCounts();
+        assertEquals(2L, counts.get(0).get("calls"));
+        assertEquals(1L, counts.get(0).get("dropped"));
+        assertEquals(1L, counts.get(1).get("calls"));
+        assertEquals(0L, counts.get(1).get("dropped"));
+    }
+
+    @Test
+    public void removesInterceptors() {
+        chain.add(null, DROP_TEST_EVENTS);
+        chain.remove(DROP_TEST_EVENTS);
+
+        chain.logEvent("test.Search");
+        assertEquals(Collections.singletonList("test.Search"), sdk.eventIds);
+        assertEquals(0, chain.getCounts().size());
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.app.Application;
+
+import org.junit.Test;
+
+public class FlurryFlutterLifecycleTest {
+    private final Application application = new Application();
+    private final FlurryFlutterLifecycle lifecycle = new FlurryFlutterLifecycle();
+    private int flushes = 0;
+
+    {
+        lifecycle.addFlushable(new FlurryFlutterLifecycle.Flushable() {
+            @Override
+            public void flush() {
+                flushes++;
+            }
+        });
+    }
+
+    @Test
+    public void staysInForegroundWhileAnotherActivityIsShown() {
+        Activity flutter = activity();
+        Activity billing = activity();
+        lifecycle.attach(flutter);
+
+        // The Flutter activity opens the billing activity, and gets it back.
+        lifecycle.onActivityStarted(billing);
+        lifecycle.onActivityStopped(flutter);
+        assertTrue(lifecycle.isForeground());
+        lifecycle.onActivityStarted(flutter);
+        lifecycle.onActivityStopped(billing);
+        assertTrue(lifecycle.isForeground());
+        assertEquals(0, flushes);
+
+        lifecycle.onActivityStopped(flutter);
+        assertFalse(lifecycle.isForeground());
+        assertEquals(1, flushes);
+    }
+
+    @Test
+    public void countsTheFlutterActivityOnceWhenAttachedBeforeItStarts() {
+        Activity flutter = activity();
+        lifecycle.attach(flutter);
+        lifecycle.onActivityStarted(flutter);
+
+        lifecycle.onActivityStopped(flutter);
+        assertFalse(lifecycle.isForeground());
+    }
+
+    @Test
+    public void detachFlushesAndPauses() {
+        lifecycle.attach(activity());
+        lifecycle.detach();
+
+        assertFalse(lifecycle.isForeground());
+        assertEquals(1, flushes);
+    }
+
+    private Activity activity() {
+        return new Activity() {
+            @Override
+            public Application getApplication() {
+                return application;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Asserts that a steady storm of listener callbacks doesn't allocate on the plugin side.
+ */
+public class FlurryFlutterListenerAllocationTest {
+    private static final int WARM_UP_ROUNDS = 20000;
+    private static final int ROUNDS = 100000;
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final EventChannel.EventSink NO_OP_SINK = new EventChannel.EventSink() {
+        @Override
+        public void success(Object event) {
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+        }
+
+        @Override
+        public void endOfStream() {
+        }
+    };
+
+    private final FlurryFlutterPlugin.FlutterFlurryConfigListener configListener =
+            new FlurryFlutterPlugin.FlutterFlurryConfigListener();
+    private final FlurryFlutterPlugin.FlutterFlurryMessagingListener messagingListener =
+            new FlurryFlutterPlugin.FlutterFlurryMessagingListener();
+    private final FlurryFlutterPlugin.FlutterFlurryPublisherListener publisherListener =
+            new FlurryFlutterPlugin.FlutterFlurryPublisherListener();
+    private final Map<String, String> publisherData = new HashMap<>();
+    private final Map<String, String> appData = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterStandInSdk());
+        FlurryFlutterEventStream.setMainExecutor(DIRECT_EXECUTOR);
+        FlurryFlutterPlugin.FlutterFlurryMessagingListener.setEventSink(NO_OP_SINK);
+        publisherData.put("segment", "premium");
+        appData.put("screen", "offers");
+    }
+
+    @After
+    public void tearDown() {
+        FlurryFlutterPlugin.FlutterFlurryMessagingListener.setEventSink(null);
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterAgentSdk());
+        FlurryFlutterEventStream.setMainExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                FlurryFlutterEventStream.getMainHandler().post(command);
+            }
+        });
+    }
+
+    @Test
+    public void callbackStormDoesNotAllocate() {
+        storm(WARM_UP_ROUNDS);
+
+        long before = allocatedBytes();
+        int callbacks = storm(ROUNDS);
+        long allocated = allocatedBytes() - before;
+
+        assertTrue("Allocated " + allocated + " bytes for " + callbacks + " callbacks",
+                allocated < callbacks);
+    }
+
+    private int storm(int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            configListener.onFetchSuccess();
+            configListener.onFetchNoChange();
+            configListener.onFetchError(true);
+            configListener.onFetchError(false);
+            configListener.onActivateComplete(true);
+            configListener.onActivateComplete(false);
+            messagingListener.onTokenRefresh("token");
+            publisherListener.onFetched(publisherData);
+            // What onNotificationCancelled sends, without a FlurryMessage.
+            FlurryFlutterPlugin.FlutterFlurryMessagingListener.sendEvent(
+                    FlurryFlutterPlugin.FlutterFlurryMessagingListener.EventType.NotificationCancelled,
+                    "Sale", "Half price today", "open", appData, false);
+        }
+        return rounds * 9;
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Activity;
+import android.app.Application;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that a memory trim flushes the buffered work, and leaves the session summaries alone.
+ */
+public class FlurryFlutterMemoryTrimmerTest {
+
+    private final List<String> reports = new ArrayList<>();
+    private final FlurryFlutterLifecycle lifecycle = new FlurryFlutterLifecycle();
+    private final FlurryFlutterMemoryTrimmer trimmer = new FlurryFlutterMemoryTrimmer(lifecycle);
+    private final Activity activity = new Activity() {
+        @Override
+        public Application getApplication() {
+            return null;
+        }
+    };
+    private int flushes = 0;
+
+    @Test
+    public void keepsTheSummariesUntilTheBackground() {
+        FlurryFlutterDurationHistograms histograms = new FlurryFlutterDurationHistograms(
+                new FlurryFlutterDurationHistograms.Reporter() {
+                    @Override
+                    public void report(String eventId, Map<String, String> parameters) {
+                        reports.add(eventId);
+                    }
+                });
+        FlurryFlutterErrorFilter errorFilter = new FlurryFlutterErrorFilter(new FlurryFlutterErrorFilter.Reporter() {
+            @Override
+            public void report(String errorId, String message, String errorClass, Map<String, String> parameters) {
+                reports.add(errorId);
+            }
+        });
+        lifecycle.addFlushable(new FlurryFlutterLifecycle.Flushable() {
+            @Override
+            public void flush() {
+                flushes++;
+            }
+        });
+        lifecycle.addPausable(histograms);
+        lifecycle.addPausable(errorFilter);
+        trimmer.register("durationHistograms", histograms);
+        trimmer.register("errorFingerprints", errorFilter);
+        lifecycle.attach(activity);
+
+        histograms.setMeasured("Checkout", true);
+        histograms.start("Checkout", null);
+        histograms.end("Checkout", null);
+        errorFilter.configure(true, 60000, 16);
+        errorFilter.onError("Crash", "boom", "Error", null);
+        errorFilter.onError("Crash", "boom", "Error", null);
+        reports.clear();
+
+        trimmer.trim(FlurryFlutterMemoryTrimmer.LEVEL_SHRINK, 5);
+        assertEquals(1, flushes);
+        assertEquals(0, reports.size());
+
+        lifecycle.onActivityStopped(activity);
+        assertEquals(2, flushes);
+        assertEquals(2, reports.size());
+        assertEquals("Checkout" + FlurryFlutterDurationHistograms.SUMMARY_SUFFIX, reports.get(0));
+        assertEquals("Crash", reports.get(1));
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.flurry.android.FlurryEventRecordStatus;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+public class FlurryFlutterPaymentDedupTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        FlurryFlutterPlugin.usePaymentDedup(null);
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterAgentSdk());
+    }
+
+    @Test
+    public void filtersRepeatedTransactions() throws IOException {
+        FlurryFlutterPaymentDedup dedup = FlurryFlutterPaymentDedup.open(folder.newFile("payments"), 16);
+
+        assertFalse(logged(dedup, "GPA.1"));
+        assertFalse(logged(dedup, "GPA.2"));
+        assertTrue(logged(dedup, "GPA.1"));
+        assertFalse(logged(dedup, null));
+        assertFalse(logged(dedup, null));
+        assertFalse(logged(dedup, ""));
+        assertEquals(1L, dedup.getCounts().get("duplicates"));
+    }
+
+    @Test
+    public void forgetsTheOldestTransactions() throws IOException {
+        FlurryFlutterPaymentDedup dedup = FlurryFlutterPaymentDedup.open(folder.newFile("payments"), 64);
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(logged(dedup, "GPA." + i));
+        }
+        for (int i = 1000 - 64; i < 1000; i++) {
+            assertTrue(logged(dedup, "GPA." + i));
+        }
+        assertFalse(logged(dedup, "GPA." + (1000 - 65)));
+        assertEquals(64, dedup.getCounts().get("size"));
+    }
+
+    @Test
+    public void remembersTransactionsAcrossLaunches() throws IOException {
+        File file = folder.newFile("payments");
+        FlurryFlutterPaymentDedup dedup = FlurryFlutterPaymentDedup.open(file, 32);
+        for (int i = 0; i < 40; i++) {
+            logged(dedup, "GPA." + i);
+        }
+        dedup.flush();
+
+        FlurryFlutterPaymentDedup reopened = FlurryFlutterPaymentDedup.open(file, 16);
+        assertEquals(16, reopened.getCounts().get("size"));
+        assertTrue(logged(reopened, "GPA.39"));
+        assertTrue(logged(reopened, "GPA.24"));
+        assertFalse(logged(reopened, "GPA.23"));
+    }
+
+    @Test
+    public void logsTheRetryOfAFailedPayment() throws IOException {
+        FlurryFlutterPlugin.usePaymentDedup(FlurryFlutterPaymentDedup.open(folder.newFile("payments"), 16));
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterStandInSdk() {
+            private int attempts = 0;
+
+            @Override
+            public FlurryEventRecordStatus logPayment(String productName, String productId, int quantity,
+                                                      double price, String currency, String transactionId,
+                                                      Map<String, String> parameters) {
+                super.logPayment(productName, productId, quantity, price, currency, transactionId, parameters);
+                return (++attempts == 1) ? FlurryEventRecordStatus.kFlurryEventFailed
+                        : FlurryEventRecordStatus.kFlurryEventRecorded;
+            }
+        });
+        FlurryFlutterPlugin plugin = new FlurryFlutterPlugin();
+
+        assertEquals(FlurryEventRecordStatus.kFlurryEventFailed.ordinal(),
+                plugin.logPayment("Gems", "gems.100", 1, 0.99, "USD", "GPA.1", null));
+        assertEquals(FlurryEventRecordStatus.kFlurryEventRecorded.ordinal(),
+                plugin.logPayment("Gems", "gems.100", 1, 0.99, "USD", "GPA.1", null));
+        assertEquals(FlurryFlutterEventCounters.STATUS_DUPLICATED,
+                plugin.logPayment("Gems", "gems.100", 1, 0.99, "USD", "GPA.1", null));
+    }
+
+    /**
+     * Returns true if the transaction is a duplicate, or remembers it as a recorded payment.
+     */
+    private static boolean logged(FlurryFlutterPaymentDedup dedup, String transactionId) {
+        if (dedup.contains(transactionId)) {
+            return true;
+        }
+        dedup.remember(transactionId);
+        return false;
+    }
+
+}
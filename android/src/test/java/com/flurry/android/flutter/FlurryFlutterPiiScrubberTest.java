@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks what the PII scrubber masks, and what it keeps.
+ */
+public class FlurryFlutterPiiScrubberTest {
+
+    private final FlurryFlutterPiiScrubber scrubber = new FlurryFlutterPiiScrubber();
+
+    @Test
+    public void masksEmails() {
+        assertEquals("contact ****.***+*@****.*******.*** now",
+                scrubber.scrub("contact john.doe+x@mail.example.com now"));
+        assertEquals("**@****.**", scrubber.scrub("me@host.io"));
+        assertEquals("x@y.c", scrubber.scrub("x@y.c"));
+    }
+
+    @Test
+    public void masksPhoneNumbers() {
+        assertEquals("call +* ***-***-****", scrubber.scrub("call +1 555-123-4567"));
+        assertEquals("(***) ***-****", scrubber.scrub("(555) 123-4567"));
+        assertEquals("+***********", scrubber.scrub("+15551234567"));
+    }
+
+    @Test
+    public void masksCardNumbers() {
+        assertEquals("card **** **** **** **** ok", scrubber.scrub("card 4111 1111 1111 1111 ok"));
+        assertEquals("****************", scrubber.scrub("4111111111111111"));
+    }
+
+    @Test
+    public void keepsIdsDatesAndTimestamps() {
+        String[] values = {"ts 1700000000000", "id 1234567890", "2023-10-19 12:30", "v1.2.3",
+                "abc12345678901234", "price 1,234,567.89", "order-5551234567", "plain text value",
+                "19999.99", "total 1234567.89", "host 192.168.10.100", "build 10.0.19045.2965",
+                "1.5 1.5 1.5 1.5"};
+        for (String value : values) {
+            assertSame(value, scrubber.scrub(value));
+        }
+    }
+
+    @Test
+    public void scrubsEventParametersExceptExemptEvents() {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("email", "me@host.io");
+        parameters.put("screen", "checkout");
+
+        FlurryFlutterEventInterceptor.Event event =
+                FlurryFlutterEventInterceptor.Event.event("Signup", parameters, false, null);
+        scrubber.intercept(event);
+        assertEquals("**@****.**", event.getParameters().get("email"));
+        assertEquals("checkout", event.getParameters().get("screen"));
+        assertEquals("me@host.io", parameters.get("email"));
+
+        scrubber.setExemptEventIds(Collections.singletonList("Signup"));
+        event = FlurryFlutterEventInterceptor.Event.event("Signup", parameters, false, null);
+        scrubber.intercept(event);
+        assertEquals("me@host.io", event.getParameters().get("email"));
+    }
+
+    @Test
+    public void scrubsTimedEventEndParameters() {
+        final List<Map<String, String>> ended = new ArrayList<>();
+        FlurryFlutterInterceptorChain chain = new FlurryFlutterInterceptorChain(new FlurryFlutterStandInSdk() {
+            @Override
+            public void endTimedEvent(String eventId, Map<String, String> parameters) {
+                ended.add(parameters);
+            }
+
+            @Override
+            public void endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+                ended.add(parameters);
+            }
+        });
+        chain.addLast("piiScrubber", scrubber);
+
+        chain.endTimedEvent("Checkout", Collections.singletonMap("phone", "+15551234567"));
+        chain.endTimedEvent("Checkout", Collections.singletonMap("email", "me@host.io"), "checkout-1");
+
+        assertEquals(Collections.singletonMap("phone", "+***********"), ended.get(0));
+        assertEquals(Collections.singletonMap("email", "**@****.**"), ended.get(1));
+    }
+
+}
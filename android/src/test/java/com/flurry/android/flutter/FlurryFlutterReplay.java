@@ -0,0 +1,165 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Replays captured method calls through FlurryFlutterPlugin.onMethodCall, and reports the
+ * throughput and the latency distribution of the calls, overall and per method.
+ */
+final class FlurryFlutterReplay {
+
+    /**
+     * Latencies of the replayed calls.
+     */
+    static final class Latencies {
+        private long[] nanos = new long[64];
+        private int count = 0;
+        private boolean sorted = true;
+
+        void add(long latencyNanos) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latencyNanos;
+            sorted = false;
+        }
+
+        int count() {
+            return count;
+        }
+
+        long percentileNanos(int percent) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(nanos, 0, count);
+                sorted = true;
+            }
+            int rank = (int) (((long) count * percent + 99) / 100);
+            return nanos[Math.max(0, rank - 1)];
+        }
+    }
+
+    /**
+     * Result of a replay.
+     */
+    static final class Report {
+        final Latencies overall = new Latencies();
+        final Map<String, Latencies> methods = new TreeMap<>();
+        final Map<String, Integer> failures = new TreeMap<>();
+        long elapsedNanos;
+
+        double callsPerSecond() {
+            return (elapsedNanos == 0) ? 0 : overall.count() * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.US, "%d calls in %.1f ms, %.0f calls/s%n",
+                    overall.count(), elapsedNanos / 1e6, callsPerSecond()));
+            append(sb, "all", overall);
+            for (Map.Entry<String, Latencies> entry : methods.entrySet()) {
+                append(sb, entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, Integer> entry : failures.entrySet()) {
+                sb.append(String.format(Locale.US, "failed %s: %d%n", entry.getKey(), entry.getValue()));
+            }
+            return sb.toString();
+        }
+
+        private static void append(StringBuilder sb, String name, Latencies latencies) {
+            sb.append(String.format(Locale.US, "%-40s n=%-8d p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus%n",
+                    name, latencies.count(),
+                    latencies.percentileNanos(50) / 1e3, latencies.percentileNanos(90) / 1e3,
+                    latencies.percentileNanos(99) / 1e3, latencies.percentileNanos(100) / 1e3));
+        }
+    }
+
+    private static final MethodChannel.Result NO_OP_RESULT = new MethodChannel.Result() {
+        @Override
+        public void success(Object result) {
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+        }
+
+        @Override
+        public void notImplemented() {
+        }
+    };
+
+    private FlurryFlutterReplay() {
+    }
+
+    /**
+     * Replays the calls at their original pace, or as fast as possible.
+     * Calls that throw, e.g. those needing an Android context, are counted as failures.
+     */
+    static Report replay(FlurryFlutterPlugin plugin, List<FlurryFlutterCallCapture.Call> calls,
+                         boolean originalSpeed) {
+        List<MethodCall> methodCalls = new ArrayList<>(calls.size());
+        for (FlurryFlutterCallCapture.Call call : calls) {
+            methodCalls.add(new MethodCall(call.method, call.arguments));
+        }
+
+        Report report = new Report();
+        long start = System.nanoTime();
+        for (int i = 0; i < calls.size(); i++) {
+            if (originalSpeed) {
+                long wait = start + calls.get(i).offsetNanos - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+
+            MethodCall call = methodCalls.get(i);
+            long callStart = System.nanoTime();
+            try {
+                plugin.onMethodCall(call, NO_OP_RESULT);
+            } catch (RuntimeException e) {
+                Integer count = report.failures.get(call.method);
+                report.failures.put(call.method, (count == null) ? 1 : count + 1);
+                continue;
+            }
+            long latency = System.nanoTime() - callStart;
+
+            report.overall.add(latency);
+            Latencies latencies = report.methods.get(call.method);
+            if (latencies == null) {
+                latencies = new Latencies();
+                report.methods.put(call.method, latencies);
+            }
+            latencies.add(latency);
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+}
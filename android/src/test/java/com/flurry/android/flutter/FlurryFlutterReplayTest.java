@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Captures method calls and replays them through the plugin, with a stand-in SDK.
+ *
+ * To replay a capture pulled off a device, run with -Dflurry.replay.file=path/to/capture,
+ * and -Dflurry.replay.originalSpeed=true to keep the original pace.
+ */
+public class FlurryFlutterReplayTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FlurryFlutterStandInSdk sdk;
+
+    @Before
+    public void setUp() {
+        sdk = new FlurryFlutterStandInSdk();
+        FlurryFlutterPlugin.setSdk(sdk);
+    }
+
+    @After
+    public void tearDown() {
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterAgentSdk());
+    }
+
+    @Test
+    public void replaysCapturedCalls() throws IOException {
+        File file = folder.newFile("capture");
+        FlurryFlutterCallCapture capture = new FlurryFlutterCallCapture(file);
+        for (int i = 0; i < 100; i++) {
+            capture.record("logEvent", Collections.singletonMap("eventId", "event" + (i % 10)));
+
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("eventId", "timed");
+            arguments.put("parameters", Collections.singletonMap("index", Integer.toString(i)));
+            arguments.put("timed", true);
+            capture.record("logTimedEventWithParametersNoReply", arguments);
+        }
+        capture.record("endTimedEvent", Collections.singletonMap("eventId", "timed"));
+        capture.close();
+
+        List<FlurryFlutterCallCapture.Call> calls = FlurryFlutterCallCapture.read(file);
+        assertEquals(201, calls.size());
+        assertEquals("logTimedEventWithParametersNoReply", calls.get(1).method);
+        assertTrue(calls.get(200).offsetNanos >= calls.get(0).offsetNanos);
+
+        FlurryFlutterReplay.Report report = FlurryFlutterReplay.replay(new FlurryFlutterPlugin(), calls, false);
+        assertTrue(report.toString(), report.failures.isEmpty());
+        assertEquals(201, report.overall.count());
+        assertEquals(100, report.methods.get("logEvent").count());
+        assertEquals(200, sdk.getCount("logEvent"));
+        assertEquals(1, sdk.getCount("endTimedEvent"));
+    }
+
+    @Test
+    public void replaysCaptureFile() throws IOException {
+        String path = System.getProperty("flurry.replay.file");
+        Assume.assumeTrue(path != null);
+
+        List<FlurryFlutterCallCapture.Call> calls = FlurryFlutterCallCapture.read(new File(path));
+        FlurryFlutterReplay.Report report = FlurryFlutterReplay.replay(new FlurryFlutterPlugin(), calls,
+                Boolean.getBoolean("flurry.replay.originalSpeed"));
+        System.out.println(report);
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import com.flurry.android.FlurryEvent;
+import com.flurry.android.FlurryEventRecordStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stand-in for the Flurry SDK, counting the calls it receives.
+ */
+class FlurryFlutterStandInSdk implements FlurryFlutterSdk {
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    synchronized int getCount(String method) {
+        Integer count = counts.get(method);
+        return (count == null) ? 0 : count;
+    }
+
+    private synchronized FlurryEventRecordStatus count(String method) {
+        counts.put(method, getCount(method) + 1);
+        return FlurryEventRecordStatus.kFlurryEventRecorded;
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId) {
+        return count("logEvent");
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters) {
+        return count("logEvent");
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, boolean timed) {
+        return count("logEvent");
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, boolean timed) {
+        return count("logEvent");
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, String timedId) {
+        return count("logEvent");
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(String eventId, Map<String, String> parameters, String timedId) {
+        return count("logEvent");
+    }
+
+    @Override
+    public FlurryEventRecordStatus logEvent(FlurryEvent event, FlurryEvent.Params params) {
+        return count("logStandardEvent");
+    }
+
+    @Override
+    public FlurryEventRecordStatus logPayment(String productName, String productId, int quantity, double price,
+                                              String currency, String transactionId, Map<String, String> parameters) {
+        return count("logPayment");
+    }
+
+    @Override
+    public void endTimedEvent(String eventId) {
+        count("endTimedEvent");
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters) {
+        count("endTimedEvent");
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, String timedId) {
+        count("endTimedEvent");
+    }
+
+    @Override
+    public void endTimedEvent(String eventId, Map<String, String> parameters, String timedId) {
+        count("endTimedEvent");
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass) {
+        count("onError");
+    }
+
+    @Override
+    public void onError(String errorId, String message, String errorClass, Map<String, String> parameters) {
+        count("onError");
+    }
+
+    @Override
+    public void logBreadcrumb(String crashBreadcrumb) {
+        count("logBreadcrumb");
+    }
+
+    @Override
+    public String getConfigString(String key, String defaultValue) {
+        return defaultValue;
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.flurry.android.FlurryEventRecordStatus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * Asserts the order of the trace sections, recorded by a stand-in sink.
+ */
+public class FlurryFlutterTracerTest {
+
+    private static final class RecordingSink implements FlurryFlutterTracer.Sink {
+        final List<String> sections = new ArrayList<>();
+
+        @Override
+        public void beginSection(String name) {
+            sections.add("begin " + name);
+        }
+
+        @Override
+        public void endSection() {
+            sections.add("end");
+        }
+
+        @Override
+        public void beginAsyncSection(String name, int cookie) {
+            sections.add("beginAsync " + name + " " + cookie);
+        }
+
+        @Override
+        public void endAsyncSection(String name, int cookie) {
+            sections.add("endAsync " + name + " " + cookie);
+        }
+    }
+
+    private static final EventChannel.EventSink NO_OP_SINK = new EventChannel.EventSink() {
+        @Override
+        public void success(Object event) {
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+        }
+
+        @Override
+        public void endOfStream() {
+        }
+    };
+
+    private static final MethodChannel.Result NO_OP_RESULT = new MethodChannel.Result() {
+        @Override
+        public void success(Object result) {
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+        }
+
+        @Override
+        public void notImplemented() {
+        }
+    };
+
+    // Stands in for the UI main thread, runs the posted tasks on demand.
+    private final List<Runnable> mainQueue = new ArrayList<>();
+    private final RecordingSink sink = new RecordingSink();
+
+    @Before
+    public void setUp() {
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterStandInSdk());
+        FlurryFlutterEventStream.setMainExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                mainQueue.add(command);
+            }
+        });
+        FlurryFlutterTracer.setSink(sink);
+    }
+
+    @After
+    public void tearDown() {
+        FlurryFlutterTracer.setEnabled(false);
+        FlurryFlutterTracer.setSink(null);
+        FlurryFlutterPlugin.FlutterFlurryMessagingListener.setEventSink(null);
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterAgentSdk());
+        FlurryFlutterEventStream.setMainExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                FlurryFlutterEventStream.getMainHandler().post(command);
+            }
+        });
+    }
+
+    @Test
+    public void tracesMethodCallAroundSdkCall() {
+        FlurryFlutterTracer.setEnabled(true);
+        new FlurryFlutterPlugin().onMethodCall(
+                new MethodCall("logEvent", Collections.singletonMap("eventId", "Search")), NO_OP_RESULT);
+
+        assertEquals(Arrays.asList(
+                "begin Flurry:call:logEvent",
+                "begin Flurry:sdk:logEvent",
+                "end",
+                "end"), sink.sections);
+    }
+
+    @Test
+    public void connectsListenerCallbackToDelivery() {
+        FlurryFlutterPlugin.FlutterFlurryMessagingListener.setEventSink(NO_OP_SINK);
+        runMainQueue();
+        FlurryFlutterTracer.setEnabled(true);
+
+        new FlurryFlutterPlugin.FlutterFlurryMessagingListener().onTokenRefresh("token");
+        assertEquals(Arrays.asList(
+                "begin Flurry:messaging:onTokenRefresh",
+                "beginAsync Flurry:messaging:delivery " + cookie(1),
+                "end"), sink.sections);
+
+        runMainQueue();
+        int cookie = cookie(1);
+        assertTrue(cookie != 0);
+        assertEquals(Arrays.asList(
+                "begin Flurry:messaging:onTokenRefresh",
+                "beginAsync Flurry:messaging:delivery " + cookie,
+                "end",
+                "endAsync Flurry:messaging:delivery " + cookie,
+                "begin Flurry:messaging:eventSink",
+                "end"), sink.sections);
+    }
+
+    @Test
+    public void endsOnlyTheSectionsThatBegan() {
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterStandInSdk() {
+            @Override
+            public FlurryEventRecordStatus logEvent(String eventId) {
+                FlurryFlutterTracer.setEnabled(!FlurryFlutterTracer.isEnabled());
+                return super.logEvent(eventId);
+            }
+        });
+        MethodCall call = new MethodCall("logEvent", Collections.singletonMap("eventId", "Search"));
+
+        // Enabled during the call, nothing to end.
+        new FlurryFlutterPlugin().onMethodCall(call, NO_OP_RESULT);
+        assertEquals(Collections.<String>emptyList(), sink.sections);
+
+        // Disabled during the call, the sections that began still end.
+        new FlurryFlutterPlugin().onMethodCall(call, NO_OP_RESULT);
+        assertEquals(Arrays.asList(
+                "begin Flurry:call:logEvent",
+                "begin Flurry:sdk:logEvent",
+                "end",
+                "end"), sink.sections);
+    }
+
+    @Test
+    public void tracesNothingWhenDisabled() {
+        new FlurryFlutterPlugin().onMethodCall(
+                new MethodCall("logEvent", Collections.singletonMap("eventId", "Search")), NO_OP_RESULT);
+        new FlurryFlutterPlugin.FlutterFlurryConfigListener().onFetchSuccess();
+        runMainQueue();
+
+        assertEquals(Collections.<String>emptyList(), sink.sections);
+    }
+
+    private int cookie(int index) {
+        String section = sink.sections.get(index);
+        return Integer.parseInt(section.substring(section.lastIndexOf(' ') + 1));
+    }
+
+    private void runMainQueue() {
+        while (!mainQueue.isEmpty()) {
+            mainQueue.remove(0).run();
+        }
+    }
+
+}
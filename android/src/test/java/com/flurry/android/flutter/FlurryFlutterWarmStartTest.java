@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023, Yahoo Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.flurry.android.flutter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FlurryFlutterWarmStartTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        FlurryFlutterPlugin.useWarmStart(null);
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterAgentSdk());
+    }
+
+    @Test
+    public void servesTheLastLaunchUntilActivation() throws IOException {
+        File file = new File(folder.getRoot(), "warm_start");
+        FlurryFlutterWarmStart warmStart = FlurryFlutterWarmStart.open(file);
+
+        warmStart.putConfig("variant", "default");
+        assertNull(warmStart.getConfig("variant"));
+        for (String key : warmStart.onConfigActivated()) {
+            warmStart.putConfig(key, "blue");
+        }
+        Map<String, String> publisherData = new HashMap<>();
+        publisherData.put("segment", "gold");
+        warmStart.putPublisherData(publisherData);
+        warmStart.save();
+
+        FlurryFlutterWarmStart reopened = FlurryFlutterWarmStart.open(file);
+        assertEquals("blue", reopened.getConfig("variant"));
+        assertNull(reopened.getConfig("unknown"));
+        assertEquals(publisherData, reopened.getPublisherData());
+        assertTrue((Long) reopened.getInfo().get("savedMillis") > 0);
+
+        reopened.onConfigActivated();
+        assertNull(reopened.getConfig("variant"));
+        assertEquals(1L, reopened.getInfo().get("configHits"));
+    }
+
+    @Test
+    public void ignoresACorruptSnapshot() throws IOException {
+        File file = folder.newFile("warm_start");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[]{0x46, 0x57, 0x53, 0x54, 0, 0, 0, 1, 0, 0, 0, 64, 1, 2, 3});
+        } finally {
+            out.close();
+        }
+
+        FlurryFlutterWarmStart warmStart = FlurryFlutterWarmStart.open(file);
+        assertNull(warmStart.getConfig("variant"));
+        assertEquals(Collections.<String, String>emptyMap(), warmStart.getPublisherData());
+        assertEquals(0L, warmStart.getInfo().get("savedMillis"));
+    }
+
+    @Test
+    public void keepsTheCallerDefaultOutOfTheSnapshot() throws IOException {
+        File file = new File(folder.getRoot(), "warm_start");
+        FlurryFlutterWarmStart warmStart = FlurryFlutterWarmStart.open(file);
+        warmStart.onConfigActivated();
+        FlurryFlutterPlugin.useWarmStart(warmStart);
+        FlurryFlutterPlugin.setSdk(new FlurryFlutterStandInSdk() {
+            @Override
+            public String getConfigString(String key, String defaultValue) {
+                return "variant".equals(key) ? "blue" : defaultValue;
+            }
+        });
+        FlurryFlutterPlugin plugin = new FlurryFlutterPlugin();
+
+        assertEquals("blue", plugin.getConfigString("variant", "red"));
+        assertEquals("red", plugin.getConfigString("missing", "red"));
+        warmStart.save();
+
+        FlurryFlutterWarmStart reopened = FlurryFlutterWarmStart.open(file);
+        assertEquals("blue", reopened.getConfig("variant"));
+        assertNull(reopened.getConfig("missing"));
+    }
+
+}
@@ -29,6 +29,9 @@ enum SKAdNetworkEvent {
 }
 
 /// Status for analytics event recording.
+///
+/// The values are sent by index from the native plugin, where they are pinned
+/// in `FlurryFlutterEventCounters`; new values must be added to both.
 enum EventRecordStatus {
   eventFailed,
   eventRecorded,
@@ -37,7 +40,46 @@ enum EventRecordStatus {
   eventLogCountExceeded,
   eventLoggingDelayed,
   eventAnalyticsDisabled,
-  eventParametersMismatched
+  eventParametersMismatched,
+  eventDuplicated,
+  eventDropped
+}
+
+/// Event recording statuses counted by the plugin.
+class EventRecordCounts {
+  /// Number of events recorded with each status.
+  final Map<EventRecordStatus, int> statuses;
+
+  /// Number of events logged per event id.
+  final Map<String, int> events;
+
+  /// Number of events recorded with each status, per event id.
+  final Map<String, Map<EventRecordStatus, int>> eventStatuses;
+
+  EventRecordCounts._(this.statuses, this.events, this.eventStatuses);
+
+  static Map<EventRecordStatus, int> _statusCounts(List<Object?> counts) {
+    Map<EventRecordStatus, int> statuses = <EventRecordStatus, int>{};
+    for (int i = 0;
+        i < counts.length && i < EventRecordStatus.values.length;
+        i++) {
+      statuses[EventRecordStatus.values[i]] = counts[i] as int;
+    }
+    return statuses;
+  }
+
+  factory EventRecordCounts._fromMap(Map<Object?, Object?> map) {
+    Map<EventRecordStatus, int> statuses =
+        _statusCounts(map['statuses'] as List<Object?>);
+    Map<String, int> events =
+        Map<String, int>.from(map['events'] as Map<Object?, Object?>);
+    Map<String, Map<EventRecordStatus, int>> eventStatuses =
+        <String, Map<EventRecordStatus, int>>{};
+    (map['eventStatuses'] as Map<Object?, Object?>).forEach((key, value) {
+      eventStatuses[key as String] = _statusCounts(value as List<Object?>);
+    });
+    return EventRecordCounts._(statuses, events, eventStatuses);
+  }
 }
 
 /// Constants for setting user gender in analytics SDK.
@@ -188,6 +230,28 @@ class Flurry {
     flurryAgent?.setVersionName(versionName);
   }
 
+  /// Forces the next state setter calls to be sent to Flurry. **Android only.**
+  ///
+  /// The [setUserId], [setAge], [setGender], [setVersionName], [setGppConsent],
+  /// [setDataSaleOptOut] and [setReportLocation] calls with the same value as
+  /// the last one sent are skipped natively. Call this method to re-send the
+  /// values on the next calls. [deleteData] also forces a re-send.
+  static void invalidateStateCache() {
+    flurryAgent?.invalidateStateCache();
+  }
+
+  /// Returns the number of skipped calls per state setter. **Android only.**
+  static Future<Map<String, int>?> getSuppressedStateCounts() async {
+    if (flurryAgent != null) {
+      Map<Object?, Object?>? counts =
+          await flurryAgent!.getSuppressedStateCounts();
+      if (counts != null) {
+        return Map<String, int>.from(counts);
+      }
+    }
+    return null;
+  }
+
   /// Adds origin attribution.
   ///
   /// Capture the [originName] and version string of the origin wrapper named
@@ -242,6 +306,17 @@ class Flurry {
     return null;
   }
 
+  /// Sets default [parameters] added to every event. **Android only.**
+  ///
+  /// The default parameters are sent once and merged natively into the
+  /// parameters of every [logEvent], timed event and [logStandardEvent] call,
+  /// the parameters of the call take precedence. Replaces any previously set
+  /// default parameters, an empty map clears them. Note that the merged
+  /// parameters count toward the maximum of 10 parameters per event.
+  static void setDefaultParameters(Map<String, String> parameters) {
+    flurryAgent?.setDefaultParameters(parameters);
+  }
+
   /// Records a custom event specified by [eventId].
   ///
   /// Returns the event recording status of the logged event.
@@ -390,6 +465,31 @@ class Flurry {
     flurryAgent?.endTimedEventIdWithParameters(eventId, parameters, timedId);
   }
 
+  /// Measures the timed event [eventId] on the device. **Android only.**
+  ///
+  /// When [enabled], the timed events named [eventId] are not sent to Flurry
+  /// one by one. Their durations, from [logTimedEvent] or [logTimedEventId] to
+  /// the matching [endTimedEvent] call, are measured natively and summarized
+  /// in a histogram. The summary is logged as the event
+  /// `<eventId>.DurationSummary`, with the `Flurry.Count`, `Flurry.MeanMillis`,
+  /// `Flurry.P50Millis`, `Flurry.P90Millis`, `Flurry.P99Millis` and
+  /// `Flurry.MaxMillis` parameters, when the app goes to the background, on
+  /// the [setTimedEventSummaryInterval], or when the measurement is disabled.
+  /// Parameters of the measured timed events are not reported. Meant for very
+  /// frequent timed interactions.
+  static void setTimedEventMeasurement(String eventId, [bool enabled = true]) {
+    flurryAgent?.setTimedEventMeasurement(eventId, enabled);
+  }
+
+  /// Sets the interval of the timed event summaries. **Android only.**
+  ///
+  /// Summaries of the events measured with [setTimedEventMeasurement] are
+  /// also logged every [intervalMillis] while the app is in the foreground.
+  /// Defaults to 0, only when the app goes to the background.
+  static void setTimedEventSummaryInterval(int intervalMillis) {
+    flurryAgent?.setTimedEventSummaryInterval(intervalMillis);
+  }
+
   /// Records a Flurry standard event.
   ///
   /// Records a standard parameterized event specified by event type named [id]
@@ -408,7 +508,8 @@ class Flurry {
   ///
   /// Logs a transaction event with maximum of 10 [parameters] to specify the
   /// characteristics of the payment. Returns the event recording status of the
-  /// logged event.
+  /// logged event, [EventRecordStatus.eventDuplicated] on Android if the
+  /// [transactionId] was already logged (see [setPaymentDedup]).
   static Future<EventRecordStatus> logPayment(
       String productName,
       String productId,
@@ -426,6 +527,100 @@ class Flurry {
     return EventRecordStatus.eventRecorded;
   }
 
+  /// Records a custom event specified by [eventId], without waiting for the
+  /// event recording status.
+  ///
+  /// Fire-and-forget variant of [logEvent]. On Android the status is not sent
+  /// back, it is counted natively and available from [getEventRecordCounts].
+  static void logEventNoReply(String eventId) {
+    flurryAgent?.logEventNoReply(eventId);
+  }
+
+  /// Fire-and-forget variant of [logEventWithParameters].
+  static void logEventWithParametersNoReply(
+      String eventId, Map<String, String> parameters) {
+    flurryAgent?.logEventWithParametersNoReply(eventId, parameters);
+  }
+
+  /// Fire-and-forget variant of [logTimedEvent].
+  static void logTimedEventNoReply(String eventId, bool timed) {
+    flurryAgent?.logTimedEventNoReply(eventId, timed);
+  }
+
+  /// Fire-and-forget variant of [logTimedEventWithParameters].
+  static void logTimedEventWithParametersNoReply(
+      String eventId, Map<String, String> parameters, bool timed) {
+    flurryAgent?.logTimedEventWithParametersNoReply(eventId, parameters, timed);
+  }
+
+  /// Fire-and-forget variant of [logTimedEventId].
+  static void logTimedEventIdNoReply(String eventId, String timedId) {
+    flurryAgent?.logTimedEventIdNoReply(eventId, timedId);
+  }
+
+  /// Fire-and-forget variant of [logTimedEventIdWithParameters].
+  static void logTimedEventIdWithParametersNoReply(
+      String eventId, Map<String, String> parameters, String timedId) {
+    flurryAgent?.logTimedEventIdWithParametersNoReply(
+        eventId, parameters, timedId);
+  }
+
+  /// Fire-and-forget variant of [logStandardEvent].
+  static void logStandardEventNoReply(FlurryEvent id, Param param) {
+    flurryAgent?.logStandardEventNoReply(id, param);
+  }
+
+  /// Fire-and-forget variant of [logPayment].
+  static void logPaymentNoReply(
+      String productName,
+      String productId,
+      int quantity,
+      double price,
+      String currency,
+      String transactionId,
+      Map<String, String> parameters) {
+    flurryAgent?.logPaymentNoReply(productName, productId, quantity, price,
+        currency, transactionId, parameters);
+  }
+
+  /// Returns the event recording statuses counted natively. **Android only.**
+  ///
+  /// Counts the statuses of all the events, standard events and payments
+  /// logged in this process, including the fire-and-forget ones, per status
+  /// and per event id. Standard events are counted under their Flurry event
+  /// name, and payments under `Flurry.Payment`. Past 512 event ids, the
+  /// other ids are counted together under `Flurry.OtherEvents`. Returns null
+  /// on iOS.
+  static Future<EventRecordCounts?> getEventRecordCounts() async {
+    if (flurryAgent != null) {
+      Map<Object?, Object?>? counts = await flurryAgent!.getEventRecordCounts();
+      if (counts != null) {
+        return EventRecordCounts._fromMap(counts);
+      }
+    }
+    return null;
+  }
+
+  /// Returns how many times the event [eventId] was logged in this process.
+  /// **Android only.**
+  ///
+  /// Counts only the events successfully recorded if [onlyRecorded] is true.
+  /// Cheap enough to drive in-app logic, e.g. show a rating prompt after a
+  /// number of completed levels. Returns 0 on iOS.
+  static Future<int> getEventCount(String eventId,
+      [bool onlyRecorded = true]) async {
+    if (flurryAgent != null) {
+      return await flurryAgent!.getEventCount(eventId, onlyRecorded);
+    }
+    return 0;
+  }
+
+  /// Resets the counts of the event [eventId], or all the counts if null.
+  /// **Android only.**
+  static void resetEventRecordCounts([String? eventId]) {
+    flurryAgent?.resetEventRecordCounts(eventId);
+  }
+
   /// Records an app exception.
   ///
   /// Commonly used to catch unhandled exceptions. Specifies error name using
@@ -447,6 +642,307 @@ class Flurry {
         errorId, message, errorClass, parameters);
   }
 
+  /// Deduplicates repeated errors before they are recorded. **Android only.**
+  ///
+  /// Errors are fingerprinted by error id, error class and the message with
+  /// numbers collapsed. The first occurrence is recorded right away; repeats
+  /// within [windowMillis] are suppressed and recorded once, when the window
+  /// closes, with the number of repeats in the `Flurry.Occurrences` parameter.
+  /// At most [maxFingerprints] distinct errors are tracked at a time.
+  static void setErrorDeduplication(bool enabled,
+      [int windowMillis = 60000, int maxFingerprints = 128]) {
+    flurryAgent?.setErrorDeduplication(enabled, windowMillis, maxFingerprints);
+  }
+
+  /// Returns the number of errors suppressed by [setErrorDeduplication].
+  static Future<int> getSuppressedErrorCount() async {
+    if (flurryAgent != null) {
+      return await flurryAgent!.getSuppressedErrorCount();
+    }
+    return 0;
+  }
+
+  /// Runs non-urgent calls when the UI thread is idle. **Android only.**
+  ///
+  /// When [enabled], [addSessionProperty], the [UserProperties] updates,
+  /// [logBreadcrumb] and [PublisherSegmentation.fetch] are queued natively,
+  /// and run in order when the UI thread has no frame to render, or after
+  /// [maxDeferralMillis] at the latest. Queued calls are run before an error
+  /// is reported, and when the app goes to the background. They may reach
+  /// Flurry after events logged in the meantime. Disabled by default.
+  static void setIdleScheduling(bool enabled,
+      [int maxDeferralMillis = 1000]) {
+    flurryAgent?.setIdleScheduling(enabled, maxDeferralMillis);
+  }
+
+  /// Reports that the route with the key [route] is shown. **Android only.**
+  ///
+  /// The time on screen is accounted natively per route, while the app is in
+  /// the foreground, until [exitRoute]. Each route is reported as one
+  /// `Flurry.RouteEngagement` event with its `Flurry.Route`, `Flurry.Visits`
+  /// and `Flurry.EngagedMillis`, when the app goes to the background, or on
+  /// exit once its time reaches the [setRouteEngagementThreshold]. Use route
+  /// names rather than unique paths, only the first 128 routes are accounted
+  /// separately.
+  static void enterRoute(String route) {
+    flurryAgent?.enterRoute(route);
+  }
+
+  /// Reports that the route with the key [route] is no longer shown.
+  /// **Android only.**
+  static void exitRoute(String route) {
+    flurryAgent?.exitRoute(route);
+  }
+
+  /// Sets the time on screen after which a route is reported on exit, instead
+  /// of when the app goes to the background. **Android only.**
+  ///
+  /// 0 reports the routes only when the app goes to the background. Defaults
+  /// to 30 minutes.
+  static void setRouteEngagementThreshold(int thresholdMillis) {
+    flurryAgent?.setRouteEngagementThreshold(thresholdMillis);
+  }
+
+  /// Returns the counts of the calls run by [setIdleScheduling].
+  /// **Android only.**
+  ///
+  /// The counts are `immediate` and `deferred` calls, deferred calls run
+  /// `ranOnIdle` or `ranOnDeadline`, and calls still `pending`. Returns null
+  /// on iOS.
+  static Future<Map<String, int>?> getIdleSchedulingCounts() async {
+    if (flurryAgent != null) {
+      Map<Object?, Object?>? counts =
+          await flurryAgent!.getIdleSchedulingCounts();
+      if (counts != null) {
+        return Map<String, int>.from(counts);
+      }
+    }
+    return null;
+  }
+
+  /// Masks personal data in the event parameter values. **Android only.**
+  ///
+  /// When [enabled], emails, phone numbers and card numbers in the parameter
+  /// values of the logged events, standard events, payments, errors and timed
+  /// event ends are masked natively before they reach Flurry, e.g.
+  /// `***-***-****`. Events with an id in [exemptEventIds] are left as is.
+  /// The scrubber runs after the other native event interceptors. Disabled by
+  /// default.
+  static void setPiiScrubbing(bool enabled,
+      [List<String> exemptEventIds = const <String>[]]) {
+    flurryAgent?.setPiiScrubbing(enabled, exemptEventIds);
+  }
+
+  /// Returns the counts of the native event interceptors. **Android only.**
+  ///
+  /// Interceptors are registered natively with
+  /// `FlurryFlutterPlugin.addEventInterceptor`, and can drop an event, which
+  /// then returns [EventRecordStatus.eventDropped]. Each interceptor reports
+  /// its `name`, the events it saw (`calls`), `dropped` and failed on
+  /// (`errors`), and its `totalMicros`, in chain order. Returns null on iOS.
+  static Future<List<Map<String, Object?>>?> getEventInterceptorCounts() async {
+    if (flurryAgent != null) {
+      List<Object?>? counts = await flurryAgent!.getEventInterceptorCounts();
+      if (counts != null) {
+        return counts
+            .map((count) =>
+                Map<String, Object?>.from(count as Map<Object?, Object?>))
+            .toList();
+      }
+    }
+    return null;
+  }
+
+  /// Sets the daily data budget of a class of events. **Android only.**
+  ///
+  /// The plugin estimates the bytes of every event Flurry records, from the
+  /// UTF-8 sizes of its id and parameters plus a fixed overhead. The
+  /// events with an id in [eventIds], or starting with an id ending in `*`,
+  /// share the [dailyBytes] budget of [eventClass]. Once over budget for the
+  /// day, they are dropped, and return [EventRecordStatus.eventDropped], or
+  /// kept at [overBudgetSampleRate], and the [DataBudgetListener]s are
+  /// notified once per day. Payments and errors are never dropped. A
+  /// [dailyBytes] of 0 removes the budget. Budgets are not persisted.
+  static void setDataBudget(
+      String eventClass, List<String> eventIds, int dailyBytes,
+      [double overBudgetSampleRate = 0.0]) {
+    flurryAgent?.setDataBudget(
+        eventClass, eventIds, dailyBytes, overBudgetSampleRate);
+  }
+
+  /// Returns the estimated bytes sent since launch. **Android only.**
+  ///
+  /// The usage has the bytes per event id in `events`, per day in `days`, and
+  /// the `usedBytes`, `dailyBytes`, `dropped` and `sampled` events of each
+  /// budget in `classes`. Returns null on iOS.
+  static Future<Map<String, Object?>?> getDataUsage() async {
+    if (flurryAgent != null) {
+      Map<Object?, Object?>? usage = await flurryAgent!.getDataUsage();
+      if (usage != null) {
+        return Map<String, Object?>.from(usage);
+      }
+    }
+    return null;
+  }
+
+  /// Registers a listener of the data budgets exceeded. **Android only.**
+  static void registerDataBudgetListener(DataBudgetListener listener) {
+    flurryAgent?.registerDataBudgetListener(listener);
+  }
+
+  /// Unregisters a listener of the data budgets exceeded. **Android only.**
+  static void unregisterDataBudgetListener(DataBudgetListener listener) {
+    flurryAgent?.unregisterDataBudgetListener(listener);
+  }
+
+  /// Filters the payments already logged. **Android only.**
+  ///
+  /// When [enabled], [logPayment] remembers the ids of the last [capacity]
+  /// transactions across app launches, and a payment with a transaction id
+  /// already logged is not sent to Flurry again. It returns
+  /// [EventRecordStatus.eventDuplicated] instead. Enabled by default, for the
+  /// last 4096 transactions.
+  static void setPaymentDedup(bool enabled, [int capacity = 4096]) {
+    flurryAgent?.setPaymentDedup(enabled, capacity);
+  }
+
+  /// Returns the counts of the payment filter of [setPaymentDedup].
+  /// **Android only.**
+  ///
+  /// The counts are the `size` and `capacity` of the filter, and the number
+  /// of `duplicates` filtered since launch. Returns null on iOS, or if the
+  /// filter is disabled.
+  static Future<Map<String, int>?> getPaymentDedupCounts() async {
+    if (flurryAgent != null) {
+      Map<Object?, Object?>? counts =
+          await flurryAgent!.getPaymentDedupCounts();
+      if (counts != null) {
+        return Map<String, int>.from(counts);
+      }
+    }
+    return null;
+  }
+
+  /// Keeps a local log of the Flurry SDK calls. **Android only.**
+  ///
+  /// When [enabled], a copy of every call forwarded to the Flurry SDK is
+  /// appended to a rolling local log of up to [maxBytes], for debugging. The
+  /// calls are logged as the SDK got them, with the default parameters merged
+  /// and the interceptors applied, and calls dropped by the plugin are not
+  /// logged. The log survives app restarts, and keeps the most recent calls.
+  /// Read it with [getLocalEventLog], or natively with
+  /// `FlurryFlutterEventLogReader`. Disabled by default.
+  static void setLocalEventLog(bool enabled, [int maxBytes = 1048576]) {
+    flurryAgent?.setLocalEventLog(enabled, maxBytes);
+  }
+
+  /// Returns the calls in the local event log, oldest first. **Android only.**
+  ///
+  /// Each call is a map of its `timestampMillis`, the SDK `method`, e.g.
+  /// `logEvent` or `logPayment`, and its `arguments`, with the returned
+  /// `status` of the logging calls. Returns null on iOS.
+  static Future<List<Map<String, Object?>>?> getLocalEventLog() async {
+    if (flurryAgent != null) {
+      List<Object?>? records = await flurryAgent!.getLocalEventLog();
+      if (records != null) {
+        return records
+            .map((record) =>
+                Map<String, Object?>.from(record as Map<Object?, Object?>))
+            .toList();
+      }
+    }
+    return null;
+  }
+
+  /// Starts capturing the calls to the plugin. **Android only.**
+  ///
+  /// Every call that reaches the native plugin is written to a capture file
+  /// with its arguments and timing, until [stopCallCapture]. The capture can
+  /// be replayed against the plugin on a JVM, to reproduce performance
+  /// problems. Meant for debugging; a new capture replaces the previous one.
+  static void startCallCapture() {
+    flurryAgent?.startCallCapture();
+  }
+
+  /// Stops capturing the calls to the plugin. **Android only.**
+  ///
+  /// Returns the path of the capture file on the device, or null if no
+  /// capture was running.
+  static Future<String?> stopCallCapture() async {
+    if (flurryAgent != null) {
+      return await flurryAgent!.stopCallCapture();
+    }
+    return null;
+  }
+
+  /// Sets the replay buffer used for listener callbacks. **Android only.**
+  ///
+  /// Config, messaging and publisher segmentation callbacks that arrive
+  /// before a listener is registered, are kept in a buffer of up to [capacity]
+  /// events per listener type and delivered when the listener registers.
+  /// Events older than [ttlMillis] are dropped. Defaults to 32 events and
+  /// 5 minutes.
+  static void setEventBufferOptions(
+      [int capacity = 32, int ttlMillis = 300000]) {
+    flurryAgent?.setEventBufferOptions(capacity, ttlMillis);
+  }
+
+  /// Returns what the plugin released on the last memory trim. **Android only.**
+  ///
+  /// The plugin flushes its pending work and releases its caches and buffers
+  /// when the system is short on memory. The report has the plugin trim
+  /// `level` (1 shrink, 2 release), the Android `systemLevel`, the
+  /// `uptimeMillis` of the trim, and the number of entries `released` per
+  /// cache. Returns null if memory was never trimmed.
+  static Future<Map<String, dynamic>?> getMemoryTrimReport() async {
+    if (flurryAgent != null) {
+      Map<Object?, Object?>? report = await flurryAgent!.getMemoryTrimReport();
+      if (report != null) {
+        return Map<String, dynamic>.from(report);
+      }
+    }
+    return null;
+  }
+
+  /// Returns the state of the warm start snapshot. **Android only.**
+  ///
+  /// Until Flurry Config activates, [Config.getConfigString] returns the
+  /// values of the last launch, and until the publisher data is fetched,
+  /// [PublisherSegmentation.getPublisherData] returns the data of the last
+  /// launch. The state has the `savedMillis` time of the loaded snapshot (0 if
+  /// none), its `configKeys` and `publisherKeys` counts, whether the config is
+  /// `configActivated`, and the reads served from the snapshot (`configHits`
+  /// and `publisherHits`). Returns null on iOS.
+  static Future<Map<String, Object?>?> getWarmStartInfo() async {
+    if (flurryAgent != null) {
+      Map<Object?, Object?>? info = await flurryAgent!.getWarmStartInfo();
+      if (info != null) {
+        return Map<String, Object?>.from(info);
+      }
+    }
+    return null;
+  }
+
+  /// Returns the startup cost of the plugin. **Android only.**
+  ///
+  /// Lists the startup phases in the order they started: `attach` (plugin
+  /// attach), `configure` (the builder calls), `messaging` (Flurry Push
+  /// setup), `build` (Flurry agent build) and `firstEvent` (from the build to
+  /// the first event successfully logged). Each phase has its `startMicros`
+  /// relative to the first phase, the total `durationMicros` spent in it, and
+  /// the `count` of calls. Returns null on iOS.
+  static Future<List<Map<String, dynamic>>?> getStartupReport() async {
+    if (flurryAgent != null) {
+      List<Object?>? report = await flurryAgent!.getStartupReport();
+      if (report != null) {
+        return report
+            .map((e) => Map<String, dynamic>.from(e as Map<Object?, Object?>))
+            .toList();
+      }
+    }
+    return null;
+  }
+
   /// Logs the breadcrumb.
   ///
   /// Captures [crashBreadcrumb] of 250 characters. The last 207 recorded
@@ -814,6 +1310,14 @@ mixin MessagingListener {
   void onTokenRefresh(String token);
 }
 
+/// Provides listener method for receiving callbacks when a data budget set
+/// with [Flurry.setDataBudget] is exceeded.
+mixin DataBudgetListener {
+  /// Informs the app when the events of [eventClass] first exceed their
+  /// [dailyBytes] budget of the day, with the [usedBytes] so far.
+  void onBudgetExceeded(String eventClass, int usedBytes, int dailyBytes);
+}
+
 /// Provides a protocol for subscribed observers of the Config class to listen to.
 ///
 /// A set of actions that allow an observing class to take action based on
@@ -841,6 +1345,28 @@ mixin ConfigListener {
   void onActivateComplete(bool isCache);
 }
 
+/// Provides listener method for receiving the native fetch decisions.
+/// **Android only.**
+///
+/// A [ConfigListener] that also mixes in [ConfigFetchDecisionListener] is told
+/// what happened to each [Config.fetchConfig] request, and to the retries.
+/// The decisions are only sent once such a listener is registered.
+mixin ConfigFetchDecisionListener {
+  /// Informs the app of a fetch decision.
+  ///
+  /// [decision] is one of:
+  /// * `fetch`, the fetch is sent.
+  /// * `coalesced`, a fetch is already in flight and gives the result.
+  /// * `throttled`, the minimum fetch interval has not elapsed.
+  /// * `backoff`, fetches are backing off after an error.
+  /// * `sdkRetrying`, the SDK retries the failed fetch itself.
+  /// * `retryScheduled`, the failed fetch is retried after a backoff.
+  /// * `gaveUp`, the failed fetch is not retried anymore.
+  ///
+  /// [delayMillis] is the time until the next fetch is allowed or retried.
+  void onFetchDecision(String decision, int delayMillis);
+}
+
 /// Config is a config service that seeks to allow app developers to have
 /// configuration services over their app.
 ///
@@ -900,6 +1426,23 @@ class Config {
     configAgent?.activateConfig();
   }
 
+  /// Sets how fetches are coordinated. **Android only.**
+  ///
+  /// A [fetchConfig] while another fetch is in flight is coalesced into it.
+  /// Fetches are at least [minIntervalMillis] apart. After a fetch error that
+  /// the SDK doesn't retry, the fetch is retried up to [maxRetries] times with
+  /// an exponential backoff from [initialBackoffMillis] to [maxBackoffMillis],
+  /// with jitter, and [fetchConfig] waits for the backoff. The decisions are
+  /// reported to the [ConfigFetchDecisionListener] listeners.
+  void setFetchPolicy(
+      [int minIntervalMillis = 0,
+      int initialBackoffMillis = 1000,
+      int maxBackoffMillis = 300000,
+      int maxRetries = 5]) {
+    configAgent?.setFetchPolicy(
+        minIntervalMillis, initialBackoffMillis, maxBackoffMillis, maxRetries);
+  }
+
   /// Registers an observer.
   ///
   /// An object may register as an observer in order to be notified of events
@@ -919,6 +1462,10 @@ class Config {
   /// but all attempts should be made to validate that the returned value is,
   /// indeed, a fully formed string.  If no value is provided in the config the
   /// [defaultValue] will be chosen.
+  ///
+  /// On Android, until a config is activated, the value of the key at the
+  /// last launch is returned if it was read then. The activation is notified
+  /// with [ConfigListener.onActivateComplete].
   Future<String> getConfigString(String key, String defaultValue) async {
     if (configAgent != null) {
       String value = await configAgent!.getConfigString(key, defaultValue);
@@ -926,6 +1473,83 @@ class Config {
     }
     return defaultValue;
   }
+
+  /// Gets the integer value for the given [key].
+  ///
+  /// Returns [defaultValue] if the config has no value, or the value is not
+  /// an integer. On Android, the value is parsed natively once, and cached
+  /// until the next config activation.
+  Future<int> getConfigInt(String key, int defaultValue) async {
+    if (configAgent != null) {
+      return await configAgent!.getConfigInt(key, defaultValue);
+    }
+    return defaultValue;
+  }
+
+  /// Gets the double value for the given [key].
+  ///
+  /// Returns [defaultValue] if the config has no value, or the value is not
+  /// a number. On Android, the value is parsed natively once, and cached
+  /// until the next config activation.
+  Future<double> getConfigDouble(String key, double defaultValue) async {
+    if (configAgent != null) {
+      return await configAgent!.getConfigDouble(key, defaultValue);
+    }
+    return defaultValue;
+  }
+
+  /// Gets the boolean value for the given [key].
+  ///
+  /// Returns [defaultValue] if the config value is not `true` or `false`,
+  /// ignoring case. On Android, the value is parsed natively once, and cached
+  /// until the next config activation.
+  Future<bool> getConfigBool(String key, bool defaultValue) async {
+    if (configAgent != null) {
+      return await configAgent!.getConfigBool(key, defaultValue);
+    }
+    return defaultValue;
+  }
+
+  /// Gets the JSON value for the given [key], decoded into maps, lists and
+  /// primitive values.
+  ///
+  /// Returns null if the config has no value, or the value is not valid JSON.
+  /// On Android, the value is parsed natively once, and cached until the next
+  /// config activation. A value unchanged since the last call is not sent
+  /// over the channel again, the same instance is returned, and must not be
+  /// modified.
+  Future<Object?> getConfigJson(String key) async {
+    if (configAgent != null) {
+      return await configAgent!.getConfigJson(key);
+    }
+    return null;
+  }
+
+  /// Gets the hash of the value for the given [key]. **Android only.**
+  ///
+  /// The hash changes when the value changes, and lets the app check a large
+  /// value for changes without transferring it. Returns null if the config
+  /// has no value, and on iOS.
+  Future<int?> getConfigHash(String key) async {
+    return await configAgent?.getConfigHash(key);
+  }
+
+  /// Returns the counts of the native cache of the typed config values.
+  /// **Android only.**
+  ///
+  /// The counts are the cached `entries`, the `hits` and `misses` of the
+  /// reads, the values that failed to parse (`parseErrors`), and the
+  /// `generation`, incremented on every config activation. Returns null on
+  /// iOS.
+  Future<Map<String, int>?> getConfigCacheCounts() async {
+    if (configAgent != null) {
+      Map<Object?, Object?>? counts = await configAgent!.getConfigCacheCounts();
+      if (counts != null) {
+        return Map<String, int>.from(counts);
+      }
+    }
+    return null;
+  }
 }
 
 enum FlurryEvent {
@@ -1671,11 +2295,37 @@ class PublisherSegmentation {
   /// Triggers an async call to the server.
   ///
   /// Server has a throttle where when the user calls [fetch] Config many times in
-  /// a row, it will basically do a no-op.
+  /// a row, it will basically do a no-op. On Android, a [fetch] while another
+  /// one is in flight shares its result, and a [fetch] within the
+  /// [setFetchTtl] of the last fetched data delivers the fetched data to the
+  /// listeners without a server call.
   void fetch() {
     publisherSegmentationAgent?.fetch();
   }
 
+  /// Sets how long the fetched data is considered fresh. **Android only.**
+  ///
+  /// Within [ttlMillis] of the last fetched data, [fetch] doesn't call the
+  /// server. Defaults to 0, every [fetch] not in flight calls the server.
+  void setFetchTtl(int ttlMillis) {
+    publisherSegmentationAgent?.setFetchTtl(ttlMillis);
+  }
+
+  /// Returns the counts of the [fetch] calls. **Android only.**
+  ///
+  /// The counts are TTL `hits`, `misses` that called the server, and fetches
+  /// `coalesced` into one in flight. Returns null on iOS.
+  Future<Map<String, int>?> getFetchCounts() async {
+    if (publisherSegmentationAgent != null) {
+      Map<Object?, Object?>? counts =
+          await publisherSegmentationAgent!.getFetchCounts();
+      if (counts != null) {
+        return Map<String, int>.from(counts);
+      }
+    }
+    return null;
+  }
+
   /// Registers as an observer
   void registerListener(PublisherSegmentationListener listener) {
     publisherSegmentationAgent?.registerListener(listener);
@@ -1690,6 +2340,9 @@ class PublisherSegmentation {
   ///
   /// Returns a map of key-value paired configuration for publisher segmentation
   /// data. If not yet fetched, it will return the cached segments data.
+  /// On Android, while no data is fetched, it returns the data fetched at the
+  /// last launch. New data is notified with
+  /// [PublisherSegmentationListener.onFetched].
   Future<Map<String, String>?> getPublisherData() async {
     if (publisherSegmentationAgent != null) {
       return await publisherSegmentationAgent!.getPublisherData();
@@ -12,6 +12,7 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 
+import 'dart:convert';
 import 'dart:io';
 import 'package:flutter/services.dart';
 
@@ -20,6 +21,11 @@ import '../flurry.dart';
 class FlurryAgent {
   static const MethodChannel _agentChannel =
       MethodChannel('flurry_flutter_plugin');
+  static const EventChannel _budgetEventChannel =
+      EventChannel('flurry_flutter_plugin_event_budget');
+
+  List<DataBudgetListener> _budgetListeners = [];
+  bool _budgetListening = false;
 
   void setContinueSessionMillis(int sessionMillis) {
     if (Platform.isIOS) {
@@ -122,6 +128,15 @@ class FlurryAgent {
         'logBreadcrumb', <String, dynamic>{'crashBreadcrumb': crashBreadcrumb});
   }
 
+  void setDefaultParameters(Map<String, String> parameters) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setDefaultParameters method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setDefaultParameters',
+          <String, dynamic>{'parameters': parameters});
+    }
+  }
+
   Future<int> logEvent(String eventId) async {
     return await _agentChannel
         .invokeMethod('logEvent', <String, dynamic>{'eventId': eventId});
@@ -190,6 +205,11 @@ class FlurryAgent {
   }
 
   Future<int> logStandardEvent(FlurryEvent id, Param param) async {
+    return await _agentChannel.invokeMethod(
+        'logStandardEvent', _standardEventArguments(id, param));
+  }
+
+  Map<String, dynamic> _standardEventArguments(FlurryEvent id, Param param) {
     Map<int, String> flurryParamMap = <int, String>{};
     Map<String, String> userParamMap = <String, String>{};
 
@@ -205,12 +225,11 @@ class FlurryAgent {
         }
       }
     }
-    return await _agentChannel.invokeMethod(
-        'logStandardEvent', <String, dynamic>{
+    return <String, dynamic>{
       'id': id.index,
       'flurryParam': flurryParamMap,
       'userParam': userParamMap
-    });
+    };
   }
 
   Future<int> logPayment(
@@ -221,7 +240,21 @@ class FlurryAgent {
       String currency,
       String transactionId,
       Map<String, String> parameters) async {
-    return await _agentChannel.invokeMethod('logPayment', <String, dynamic>{
+    return await _agentChannel.invokeMethod(
+        'logPayment',
+        _paymentArguments(productName, productId, quantity, price, currency,
+            transactionId, parameters));
+  }
+
+  Map<String, dynamic> _paymentArguments(
+      String productName,
+      String productId,
+      int quantity,
+      double price,
+      String currency,
+      String transactionId,
+      Map<String, String> parameters) {
+    return <String, dynamic>{
       'productName': productName,
       'productId': productId,
       'quantity': quantity,
@@ -229,9 +262,97 @@ class FlurryAgent {
       'currency': currency,
       'transactionId': transactionId,
       'parameters': parameters
+    };
+  }
+
+  // Fire-and-forget variants, Android does not reply the event recording
+  // status. Fall back to the regular methods on iOS.
+  String _noReply(String method) {
+    return Platform.isAndroid ? method + 'NoReply' : method;
+  }
+
+  void logEventNoReply(String eventId) {
+    _agentChannel.invokeMethod(
+        _noReply('logEvent'), <String, dynamic>{'eventId': eventId});
+  }
+
+  void logEventWithParametersNoReply(
+      String eventId, Map<String, String> parameters) {
+    _agentChannel.invokeMethod(_noReply('logEventWithParameters'),
+        <String, dynamic>{'eventId': eventId, 'parameters': parameters});
+  }
+
+  void logTimedEventNoReply(String eventId, bool timed) {
+    _agentChannel.invokeMethod(_noReply('logTimedEvent'),
+        <String, dynamic>{'eventId': eventId, 'timed': timed});
+  }
+
+  void logTimedEventWithParametersNoReply(
+      String eventId, Map<String, String> parameters, bool timed) {
+    _agentChannel.invokeMethod(
+        _noReply('logTimedEventWithParameters'), <String, dynamic>{
+      'eventId': eventId,
+      'parameters': parameters,
+      'timed': timed
+    });
+  }
+
+  void logTimedEventIdNoReply(String eventId, String timedId) {
+    _agentChannel.invokeMethod(_noReply('logTimedEventId'),
+        <String, dynamic>{'eventId': eventId, 'timedId': timedId});
+  }
+
+  void logTimedEventIdWithParametersNoReply(
+      String eventId, Map<String, String> parameters, String timedId) {
+    _agentChannel.invokeMethod(
+        _noReply('logTimedEventIdWithParameters'), <String, dynamic>{
+      'eventId': eventId,
+      'parameters': parameters,
+      'timedId': timedId
     });
   }
 
+  void logStandardEventNoReply(FlurryEvent id, Param param) {
+    _agentChannel.invokeMethod(
+        _noReply('logStandardEvent'), _standardEventArguments(id, param));
+  }
+
+  void logPaymentNoReply(
+      String productName,
+      String productId,
+      int quantity,
+      double price,
+      String currency,
+      String transactionId,
+      Map<String, String> parameters) {
+    _agentChannel.invokeMethod(
+        _noReply('logPayment'),
+        _paymentArguments(productName, productId, quantity, price, currency,
+            transactionId, parameters));
+  }
+
+  Future<Map<Object?, Object?>?> getEventRecordCounts() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getEventRecordCounts');
+    }
+    return null;
+  }
+
+  Future<int> getEventCount(String eventId, bool onlyRecorded) async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getEventCount',
+          <String, dynamic>{'eventId': eventId, 'onlyRecorded': onlyRecorded});
+    }
+    return 0;
+  }
+
+  void resetEventRecordCounts(String? eventId) {
+    if (Platform.isAndroid) {
+      _agentChannel.invokeMethod(
+          'resetEventRecordCounts', <String, dynamic>{'eventId': eventId});
+    }
+  }
+
   void onError(String errorId, String message, String errorClass) {
     _agentChannel.invokeMethod('onError', <String, dynamic>{
       'errorId': errorId,
@@ -250,6 +371,253 @@ class FlurryAgent {
     });
   }
 
+  void setErrorDeduplication(
+      bool enabled, int windowMillis, int maxFingerprints) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setErrorDeduplication method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setErrorDeduplication', <String, dynamic>{
+        'enabled': enabled,
+        'windowMillis': windowMillis,
+        'maxFingerprints': maxFingerprints
+      });
+    }
+  }
+
+  Future<int> getSuppressedErrorCount() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getSuppressedErrorCount');
+    }
+    return 0;
+  }
+
+  void setTimedEventMeasurement(String eventId, bool enabled) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setTimedEventMeasurement method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setTimedEventMeasurement',
+          <String, dynamic>{'eventId': eventId, 'enabled': enabled});
+    }
+  }
+
+  void setTimedEventSummaryInterval(int intervalMillis) {
+    if (Platform.isIOS) {
+      print(
+          'Flurry iOS SDK does not implement setTimedEventSummaryInterval method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setTimedEventSummaryInterval',
+          <String, dynamic>{'intervalMillis': intervalMillis});
+    }
+  }
+
+  void enterRoute(String route) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement enterRoute method');
+    } else if (Platform.isAndroid) {
+      _agentChannel
+          .invokeMethod('enterRoute', <String, dynamic>{'route': route});
+    }
+  }
+
+  void exitRoute(String route) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement exitRoute method');
+    } else if (Platform.isAndroid) {
+      _agentChannel
+          .invokeMethod('exitRoute', <String, dynamic>{'route': route});
+    }
+  }
+
+  void setRouteEngagementThreshold(int thresholdMillis) {
+    if (Platform.isIOS) {
+      print(
+          'Flurry iOS SDK does not implement setRouteEngagementThreshold method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setRouteEngagementThreshold',
+          <String, dynamic>{'thresholdMillis': thresholdMillis});
+    }
+  }
+
+  void setIdleScheduling(bool enabled, int maxDeferralMillis) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setIdleScheduling method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setIdleScheduling', <String, dynamic>{
+        'enabled': enabled,
+        'maxDeferralMillis': maxDeferralMillis
+      });
+    }
+  }
+
+  Future<Map<Object?, Object?>?> getIdleSchedulingCounts() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getIdleSchedulingCounts');
+    }
+    return null;
+  }
+
+  void setPiiScrubbing(bool enabled, List<String> exemptEventIds) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setPiiScrubbing method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setPiiScrubbing', <String, dynamic>{
+        'enabled': enabled,
+        'exemptEventIds': exemptEventIds
+      });
+    }
+  }
+
+  Future<List<Object?>?> getEventInterceptorCounts() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getEventInterceptorCounts');
+    }
+    return null;
+  }
+
+  void setDataBudget(String eventClass, List<String> eventIds, int dailyBytes,
+      double overBudgetSampleRate) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setDataBudget method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setDataBudget', <String, dynamic>{
+        'eventClass': eventClass,
+        'eventIds': eventIds,
+        'dailyBytes': dailyBytes,
+        'overBudgetSampleRate': overBudgetSampleRate
+      });
+    }
+  }
+
+  Future<Map<Object?, Object?>?> getDataUsage() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getDataUsage');
+    }
+    return null;
+  }
+
+  void registerDataBudgetListener(DataBudgetListener listener) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement registerDataBudgetListener '
+          'method');
+    } else if (Platform.isAndroid) {
+      _budgetListeners.add(listener);
+      if (!_budgetListening) {
+        _budgetListening = true;
+        _budgetEventChannel
+            .receiveBroadcastStream()
+            .listen(_onBudgetEvent, onError: _onBudgetError);
+      }
+    }
+  }
+
+  void unregisterDataBudgetListener(DataBudgetListener listener) {
+    _budgetListeners.remove(listener);
+  }
+
+  void _onBudgetEvent(Object? e) {
+    if (e is Map) {
+      String eventClass = e['eventClass'] as String;
+      int usedBytes = e['usedBytes'] as int;
+      int dailyBytes = e['dailyBytes'] as int;
+      _budgetListeners.forEach((element) =>
+          element.onBudgetExceeded(eventClass, usedBytes, dailyBytes));
+    }
+  }
+
+  void _onBudgetError(Object error) {
+    print('error receiving data budget callbacks');
+  }
+
+  void setPaymentDedup(bool enabled, int capacity) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setPaymentDedup method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setPaymentDedup',
+          <String, dynamic>{'enabled': enabled, 'capacity': capacity});
+    }
+  }
+
+  Future<Map<Object?, Object?>?> getPaymentDedupCounts() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getPaymentDedupCounts');
+    }
+    return null;
+  }
+
+  void setLocalEventLog(bool enabled, int maxBytes) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setLocalEventLog method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setLocalEventLog',
+          <String, dynamic>{'enabled': enabled, 'maxBytes': maxBytes});
+    }
+  }
+
+  Future<List<Object?>?> getLocalEventLog() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getLocalEventLog');
+    }
+    return null;
+  }
+
+  void startCallCapture() {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement startCallCapture method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('startCallCapture');
+    }
+  }
+
+  Future<String?> stopCallCapture() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('stopCallCapture');
+    }
+    return null;
+  }
+
+  void setEventBufferOptions(int capacity, int ttlMillis) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setEventBufferOptions method');
+    } else if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('setEventBufferOptions',
+          <String, dynamic>{'capacity': capacity, 'ttlMillis': ttlMillis});
+    }
+  }
+
+  Future<Map<Object?, Object?>?> getMemoryTrimReport() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getMemoryTrimReport');
+    }
+    return null;
+  }
+
+  Future<Map<Object?, Object?>?> getWarmStartInfo() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getWarmStartInfo');
+    }
+    return null;
+  }
+
+  Future<List<Object?>?> getStartupReport() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getStartupReport');
+    }
+    return null;
+  }
+
+  void invalidateStateCache() {
+    if (Platform.isAndroid) {
+      _agentChannel.invokeMethod('invalidateStateCache');
+    }
+  }
+
+  Future<Map<Object?, Object?>?> getSuppressedStateCounts() async {
+    if (Platform.isAndroid) {
+      return await _agentChannel.invokeMethod('getSuppressedStateCounts');
+    }
+    return null;
+  }
+
   void openPrivacyDashboard() {
     _agentChannel.invokeMethod('openPrivacyDashboard');
   }
@@ -620,8 +988,10 @@ class ConfigAgent {
   static const String fetchNoChange = 'FetchNoChange';
   static const String fetchError = 'FetchError';
   static const String activateComplete = 'ActivateComplete';
+  static const String fetchDecision = 'FetchDecision';
 
   List<ConfigListener> _listeners = [];
+  Map<String, _ConfigJsonValue> _jsonValues = {};
 
   void fetchConfig() {
     _configChannel.invokeMethod('fetchConfig');
@@ -631,9 +1001,25 @@ class ConfigAgent {
     _configChannel.invokeMethod('activateConfig');
   }
 
+  void setFetchPolicy(int minIntervalMillis, int initialBackoffMillis,
+      int maxBackoffMillis, int maxRetries) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setFetchPolicy method');
+    } else if (Platform.isAndroid) {
+      _configChannel.invokeMethod('setConfigFetchPolicy', <String, dynamic>{
+        'minIntervalMillis': minIntervalMillis,
+        'initialBackoffMillis': initialBackoffMillis,
+        'maxBackoffMillis': maxBackoffMillis,
+        'maxRetries': maxRetries
+      });
+    }
+  }
+
   void registerListener(ConfigListener listener) {
     _listeners.add(listener);
-    _configChannel.invokeMethod('registerConfigListener');
+    _configChannel.invokeMethod('registerConfigListener', <String, dynamic>{
+      'fetchDecisions': listener is ConfigFetchDecisionListener
+    });
     _eventChannel.receiveBroadcastStream().listen(_onEvent, onError: _onError);
   }
 
@@ -678,6 +1064,11 @@ class ConfigAgent {
             _listeners
                 .forEach((element) => element.onActivateComplete(isCache));
           }
+        } else if (type == fetchDecision) {
+          String decision = event['decision'] ?? '';
+          int delayMillis = int.tryParse(event['delayMillis'] ?? '') ?? 0;
+          _listeners.whereType<ConfigFetchDecisionListener>().forEach(
+              (element) => element.onFetchDecision(decision, delayMillis));
         }
       }
     }
@@ -691,6 +1082,89 @@ class ConfigAgent {
     return await _configChannel.invokeMethod('getConfigString',
         <String, dynamic>{'key': key, 'defaultValue': defaultValue});
   }
+
+  Future<int> getConfigInt(String key, int defaultValue) async {
+    if (Platform.isAndroid) {
+      return await _configChannel.invokeMethod('getConfigLong',
+          <String, dynamic>{'key': key, 'defaultValue': defaultValue});
+    }
+    String value = await getConfigString(key, defaultValue.toString());
+    return int.tryParse(value.trim()) ?? defaultValue;
+  }
+
+  Future<double> getConfigDouble(String key, double defaultValue) async {
+    if (Platform.isAndroid) {
+      return await _configChannel.invokeMethod('getConfigDouble',
+          <String, dynamic>{'key': key, 'defaultValue': defaultValue});
+    }
+    String value = await getConfigString(key, defaultValue.toString());
+    return double.tryParse(value.trim()) ?? defaultValue;
+  }
+
+  Future<bool> getConfigBool(String key, bool defaultValue) async {
+    if (Platform.isAndroid) {
+      return await _configChannel.invokeMethod('getConfigBoolean',
+          <String, dynamic>{'key': key, 'defaultValue': defaultValue});
+    }
+    String value = await getConfigString(key, defaultValue.toString());
+    switch (value.trim().toLowerCase()) {
+      case 'true':
+        return true;
+      case 'false':
+        return false;
+      default:
+        return defaultValue;
+    }
+  }
+
+  Future<Object?> getConfigJson(String key) async {
+    if (Platform.isAndroid) {
+      // The native side skips the value if it has the hash of the one we have.
+      _ConfigJsonValue? known = _jsonValues[key];
+      Map<Object?, Object?> json = await _configChannel.invokeMethod(
+          'getConfigJson',
+          <String, dynamic>{'key': key, 'knownHash': known?.hash});
+      int? hash = json['hash'] as int?;
+      if (hash == null) {
+        _jsonValues.remove(key);
+        return null;
+      }
+      if (known != null && !json.containsKey('value')) {
+        return known.value;
+      }
+      Object? value = json['value'];
+      _jsonValues[key] = _ConfigJsonValue(hash, value);
+      return value;
+    }
+    String value = await getConfigString(key, '');
+    try {
+      return value.isEmpty ? null : jsonDecode(value);
+    } on FormatException {
+      return null;
+    }
+  }
+
+  Future<int?> getConfigHash(String key) async {
+    if (Platform.isAndroid) {
+      return await _configChannel
+          .invokeMethod('getConfigHash', <String, dynamic>{'key': key});
+    }
+    return null;
+  }
+
+  Future<Map<Object?, Object?>?> getConfigCacheCounts() async {
+    if (Platform.isAndroid) {
+      return await _configChannel.invokeMethod('getConfigCacheCounts');
+    }
+    return null;
+  }
+}
+
+class _ConfigJsonValue {
+  final int hash;
+  final Object? value;
+
+  _ConfigJsonValue(this.hash, this.value);
 }
 
 class ParamBuilderAgent {
@@ -770,6 +1244,22 @@ class PublisherSegmentationAgent {
     _publisherChannel.invokeMethod('fetchPublisherData');
   }
 
+  void setFetchTtl(int ttlMillis) {
+    if (Platform.isIOS) {
+      print('Flurry iOS SDK does not implement setFetchTtl method');
+    } else if (Platform.isAndroid) {
+      _publisherChannel.invokeMethod(
+          'setPublisherDataTtl', <String, dynamic>{'ttlMillis': ttlMillis});
+    }
+  }
+
+  Future<Map<Object?, Object?>?> getFetchCounts() async {
+    if (Platform.isAndroid) {
+      return await _publisherChannel.invokeMethod('getPublisherFetchCounts');
+    }
+    return null;
+  }
+
   void registerListener(PublisherSegmentationListener listener) {
     _listeners.add(listener);
     _publisherChannel.invokeMethod('registerPublisherDataListener');